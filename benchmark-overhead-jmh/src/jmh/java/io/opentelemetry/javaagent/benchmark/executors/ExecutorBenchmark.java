@@ -0,0 +1,110 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.executors;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the overhead of context propagation on task submission. The benchmark methods run with
+ * a span in the current context when {@code inSpan} is set, which is when the executors
+ * instrumentation attaches the context to every submitted task.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+public class ExecutorBenchmark {
+
+  // number of leaf tasks forked by each forkJoin invocation
+  private static final int FORK_JOIN_TASKS = 1024;
+
+  @Param({"false", "true"})
+  boolean inSpan;
+
+  private ExecutorService threadPool;
+  private ForkJoinPool forkJoinPool;
+  private Span span;
+  private Scope scope;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    threadPool = Executors.newFixedThreadPool(2);
+    forkJoinPool = new ForkJoinPool(2);
+  }
+
+  @Setup(Level.Iteration)
+  public void makeSpanCurrent() {
+    if (inSpan) {
+      span = GlobalOpenTelemetry.getTracer("benchmark").spanBuilder("parent").startSpan();
+      scope = span.makeCurrent();
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void closeSpan() {
+    if (inSpan) {
+      scope.close();
+      span.end();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    threadPool.shutdown();
+    forkJoinPool.shutdown();
+  }
+
+  @Benchmark
+  public Integer threadPoolSubmit() throws ExecutionException, InterruptedException {
+    return threadPool.submit(() -> 1).get();
+  }
+
+  @Benchmark
+  public Integer forkJoin() {
+    return forkJoinPool.invoke(new SumTask(0, FORK_JOIN_TASKS));
+  }
+
+  /** Forks a binary tree of tiny tasks, like divide and conquer workloads do. */
+  private static final class SumTask extends RecursiveTask<Integer> {
+    private static final long serialVersionUID = 1L;
+
+    private final int start;
+    private final int end;
+
+    SumTask(int start, int end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected Integer compute() {
+      if (end - start <= 1) {
+        return start;
+      }
+      int middle = (start + end) >>> 1;
+      SumTask left = new SumTask(start, middle);
+      left.fork();
+      int right = new SumTask(middle, end).compute();
+      return left.join() + right;
+    }
+  }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.startup;
+
+import io.opentelemetry.javaagent.benchmark.servlet.app.HelloWorldApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/** Starts the hello world application on a random port and exits once it is up. */
+public class StartupApplication {
+
+  public static void main(String... args) {
+    ConfigurableApplicationContext context =
+        SpringApplication.run(HelloWorldApplication.class, "--server.port=0");
+    context.close();
+    System.exit(0);
+  }
+
+  private StartupApplication() {}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.startup;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the startup time of a spring boot application with the agent attached, without the
+ * transformation cache, with an empty (cold) transformation cache and with a transformation cache
+ * populated by a previous start (warm), and with and without a class data sharing archive created
+ * by a previous start. Each invocation starts a new JVM.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+  @Param({"disabled", "cold", "warm"})
+  public String transformationCache;
+
+  @Param({"disabled", "enabled"})
+  public String classDataSharing;
+
+  private String agentJar;
+  private Path cacheDirectory;
+  private Path classDataSharingArchive;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    agentJar = findAgentJar();
+    cacheDirectory = Files.createTempDirectory("transformation-cache");
+    classDataSharingArchive = cacheDirectory.resolve("application.jsa");
+    if ("enabled".equals(classDataSharing)) {
+      // create the archive, this also populates the transformation cache
+      startApplication("-XX:ArchiveClassesAtExit=" + classDataSharingArchive);
+    } else if ("warm".equals(transformationCache)) {
+      // populate the cache
+      startApplication();
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void clearCache() throws IOException {
+    if ("cold".equals(transformationCache)) {
+      try (Stream<Path> files = Files.list(cacheDirectory)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          if (!file.equals(classDataSharingArchive)) {
+            Files.delete(file);
+          }
+        }
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    deleteContents(cacheDirectory);
+    Files.delete(cacheDirectory);
+  }
+
+  @Benchmark
+  public void startup() throws Exception {
+    if ("enabled".equals(classDataSharing)) {
+      startApplication("-XX:SharedArchiveFile=" + classDataSharingArchive);
+    } else {
+      startApplication();
+    }
+  }
+
+  private void startApplication(String... jvmArgs) throws Exception {
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    if ("enabled".equals(classDataSharing)) {
+      // classes appended to the boot class path by the agent at runtime are not archived
+      command.add("-Xbootclasspath/a:" + agentJar);
+    }
+    command.addAll(Arrays.asList(jvmArgs));
+    command.add("-javaagent:" + agentJar);
+    command.add("-Dotel.traces.exporter=none");
+    command.add("-Dotel.metrics.exporter=none");
+    command.add("-Dotel.logs.exporter=none");
+    if (!"disabled".equals(transformationCache)) {
+      command.add("-Dotel.javaagent.experimental.transformation-cache.directory=" + cacheDirectory);
+    }
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(StartupApplication.class.getName());
+
+    Process process =
+        new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "startup-benchmark.log"))
+            .start();
+    if (process.waitFor() != 0) {
+      throw new IllegalStateException("Application exited with " + process.exitValue());
+    }
+  }
+
+  private static String findAgentJar() {
+    // the jmh gradle plugin passes all jvm arguments as a single argument
+    for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+      for (String part : argument.split(" ")) {
+        if (part.startsWith("-javaagent:")) {
+          return part.substring("-javaagent:".length());
+        }
+      }
+    }
+    throw new IllegalStateException("Benchmark must be run with the agent attached");
+  }
+
+  private static void deleteContents(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        if (!file.equals(directory)) {
+          Files.delete(file);
+        }
+      }
+    }
+  }
+}
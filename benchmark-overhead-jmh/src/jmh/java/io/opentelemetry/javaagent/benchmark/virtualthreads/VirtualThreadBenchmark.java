@@ -0,0 +1,69 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.virtualthreads;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Starts a million virtual threads that each make one traced call, which makes a span current on
+ * the virtual thread. This is the baseline for the cost of the thread local context storage on
+ * short-lived virtual threads, run with {@code -prof gc} to see the allocation. Requires java 21.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+  private static final int VIRTUAL_THREADS = 1_000_000;
+
+  private Tracer tracer;
+
+  @Setup
+  public void setup() {
+    tracer = GlobalOpenTelemetry.getTracer("benchmark");
+  }
+
+  @Benchmark
+  public void tracedCallPerVirtualThread() throws Exception {
+    ExecutorService executor = newVirtualThreadPerTaskExecutor();
+    for (int i = 0; i < VIRTUAL_THREADS; i++) {
+      executor.execute(this::tracedCall);
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+  }
+
+  private void tracedCall() {
+    Span span = tracer.spanBuilder("call").startSpan();
+    try (Scope ignored = span.makeCurrent()) {
+      Span.current().setAttribute("virtual", true);
+    } finally {
+      span.end();
+    }
+  }
+
+  // the benchmarks are compiled for an older java version
+  private static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+    return (ExecutorService)
+        Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link SqlStatementSanitizer} cache key that identifies the raw statement by its length and a
+ * 128-bit MurmurHash3 of its characters instead of referencing it. The cache then only retains the
+ * sanitized statements, and never the raw ones which may contain sensitive literals. With 128 bits
+ * an accidental collision between two statements of the same length is practically impossible.
+ */
+final class HashedSqlCacheKey {
+
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  private final long hash1;
+  private final long hash2;
+  private final int length;
+  private final SqlDialect dialect;
+  private final boolean normalizeLists;
+  private final boolean truncated;
+
+  static HashedSqlCacheKey create(
+      String statement, SqlDialect dialect, boolean normalizeLists, boolean truncated) {
+    // MurmurHash3 x64 128-bit, reading 4 chars per 64-bit block
+    long h1 = 0;
+    long h2 = 0;
+    int length = statement.length();
+    int i = 0;
+    for (; i + 8 <= length; i += 8) {
+      h1 ^= mixK1(pack(statement, i, i + 4));
+      h1 = Long.rotateLeft(h1, 27) + h2;
+      h1 = h1 * 5 + 0x52dce729;
+      h2 ^= mixK2(pack(statement, i + 4, i + 8));
+      h2 = Long.rotateLeft(h2, 31) + h1;
+      h2 = h2 * 5 + 0x38495ab5;
+    }
+    if (i < length) {
+      h1 ^= mixK1(pack(statement, i, Math.min(i + 4, length)));
+      if (i + 4 < length) {
+        h2 ^= mixK2(pack(statement, i + 4, length));
+      }
+    }
+    h1 ^= length;
+    h2 ^= length;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix64(h1);
+    h2 = fmix64(h2);
+    h1 += h2;
+    h2 += h1;
+    return new HashedSqlCacheKey(h1, h2, length, dialect, normalizeLists, truncated);
+  }
+
+  private HashedSqlCacheKey(
+      long hash1,
+      long hash2,
+      int length,
+      SqlDialect dialect,
+      boolean normalizeLists,
+      boolean truncated) {
+    this.hash1 = hash1;
+    this.hash2 = hash2;
+    this.length = length;
+    this.dialect = dialect;
+    this.normalizeLists = normalizeLists;
+    this.truncated = truncated;
+  }
+
+  private static long pack(String statement, int start, int end) {
+    long block = 0;
+    for (int i = start; i < end; i++) {
+      block |= ((long) statement.charAt(i)) << ((i - start) * 16);
+    }
+    return block;
+  }
+
+  private static long mixK1(long k1) {
+    return Long.rotateLeft(k1 * C1, 31) * C2;
+  }
+
+  private static long mixK2(long k2) {
+    return Long.rotateLeft(k2 * C2, 33) * C1;
+  }
+
+  private static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof HashedSqlCacheKey)) {
+      return false;
+    }
+    HashedSqlCacheKey other = (HashedSqlCacheKey) obj;
+    return hash1 == other.hash1
+        && hash2 == other.hash2
+        && length == other.length
+        && dialect == other.dialect
+        && normalizeLists == other.normalizeLists
+        && truncated == other.truncated;
+  }
+
+  @Override
+  public int hashCode() {
+    // the hash is already well mixed, the other fields rarely differ
+    return (int) hash1;
+  }
+}
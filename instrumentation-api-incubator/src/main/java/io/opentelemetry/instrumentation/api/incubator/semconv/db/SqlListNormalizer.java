@@ -0,0 +1,193 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import javax.annotation.Nullable;
+
+/**
+ * Collapses the parts of a raw SQL statement whose length depends on the number of bound values
+ * into a canonical form, so that statements that differ only by e.g. the number of IN-list
+ * elements share a single sanitizer cache entry:
+ *
+ * <ul>
+ *   <li>{@code IN (?, ?, ?)} becomes {@code IN (?)}
+ *   <li>{@code VALUES (?, ?), (?, ?)} becomes {@code VALUES (?, ?)}, repeated tuples must be
+ *       identical
+ * </ul>
+ *
+ * <p>This is a single pass over the statement that only understands quotes and comments; it is
+ * much cheaper than running the {@link AutoSqlSanitizer} lexer, which makes it suitable for
+ * computing the cache key.
+ */
+final class SqlListNormalizer {
+
+  /** Returns the normalized statement, or the same instance when there was nothing to collapse. */
+  static String normalize(String statement) {
+    StringBuilder normalized = null;
+    int copiedUntil = 0;
+    int length = statement.length();
+    int i = 0;
+    while (i < length) {
+      char c = statement.charAt(i);
+      if (c == '\'' || c == '"' || c == '`') {
+        i = skipQuoted(statement, i);
+        continue;
+      }
+      if (c == '/' && i + 1 < length && statement.charAt(i + 1) == '*') {
+        int end = statement.indexOf("*/", i + 2);
+        i = end < 0 ? length : end + 2;
+        continue;
+      }
+      if (c == '-' && i + 1 < length && statement.charAt(i + 1) == '-') {
+        int end = statement.indexOf('\n', i + 2);
+        i = end < 0 ? length : end + 1;
+        continue;
+      }
+      if (!isIdentifierPart(c)) {
+        i++;
+        continue;
+      }
+
+      int wordEnd = i + 1;
+      while (wordEnd < length && isIdentifierPart(statement.charAt(wordEnd))) {
+        wordEnd++;
+      }
+      int wordLength = wordEnd - i;
+      if (wordLength == 2 && statement.regionMatches(true, i, "IN", 0, 2)) {
+        int open = skipWhitespace(statement, wordEnd);
+        int close = placeholderListEnd(statement, open);
+        if (close >= 0) {
+          normalized = append(normalized, statement, copiedUntil, open);
+          normalized.append("(?)");
+          copiedUntil = close + 1;
+          wordEnd = close + 1;
+        }
+      } else if (wordLength == 6 && statement.regionMatches(true, i, "VALUES", 0, 6)) {
+        int open = skipWhitespace(statement, wordEnd);
+        int close = tupleEnd(statement, open);
+        if (close >= 0) {
+          int tupleLength = close + 1 - open;
+          int lastClose = close;
+          while (true) {
+            int comma = skipWhitespace(statement, lastClose + 1);
+            if (comma >= length || statement.charAt(comma) != ',') {
+              break;
+            }
+            int nextOpen = skipWhitespace(statement, comma + 1);
+            if (!statement.regionMatches(nextOpen, statement, open, tupleLength)) {
+              break;
+            }
+            lastClose = nextOpen + tupleLength - 1;
+          }
+          if (lastClose != close) {
+            normalized = append(normalized, statement, copiedUntil, close + 1);
+            copiedUntil = lastClose + 1;
+          }
+          wordEnd = lastClose + 1;
+        }
+      }
+      i = wordEnd;
+    }
+
+    if (normalized == null) {
+      return statement;
+    }
+    return normalized.append(statement, copiedUntil, length).toString();
+  }
+
+  private static StringBuilder append(
+      @Nullable StringBuilder normalized, String statement, int start, int end) {
+    if (normalized == null) {
+      normalized = new StringBuilder(statement.length());
+    }
+    return normalized.append(statement, start, end);
+  }
+
+  /**
+   * Returns the index of the closing parenthesis of a list of at least two {@code ?} placeholders
+   * starting at {@code open}, or -1 if there is no such list.
+   */
+  private static int placeholderListEnd(String statement, int open) {
+    int length = statement.length();
+    if (open >= length || statement.charAt(open) != '(') {
+      return -1;
+    }
+    int placeholders = 0;
+    int i = skipWhitespace(statement, open + 1);
+    while (i < length && statement.charAt(i) == '?') {
+      placeholders++;
+      i = skipWhitespace(statement, i + 1);
+      if (i < length && statement.charAt(i) == ')') {
+        return placeholders > 1 ? i : -1;
+      }
+      if (i >= length || statement.charAt(i) != ',') {
+        return -1;
+      }
+      i = skipWhitespace(statement, i + 1);
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the parenthesis that closes the one at {@code open}, or -1 if {@code
+   * open} is not an opening parenthesis or it is never closed.
+   */
+  private static int tupleEnd(String statement, int open) {
+    int length = statement.length();
+    if (open >= length || statement.charAt(open) != '(') {
+      return -1;
+    }
+    int depth = 0;
+    int i = open;
+    while (i < length) {
+      char c = statement.charAt(i);
+      if (c == '\'' || c == '"' || c == '`') {
+        i = skipQuoted(statement, i);
+        continue;
+      }
+      if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i;
+      }
+      i++;
+    }
+    return -1;
+  }
+
+  /** Returns the index after the closing quote of the quoted string starting at {@code start}. */
+  private static int skipQuoted(String statement, int start) {
+    char quote = statement.charAt(start);
+    int length = statement.length();
+    int i = start + 1;
+    while (i < length) {
+      if (statement.charAt(i) == quote) {
+        // doubled quotes are an escaped quote
+        if (quote != '`' && i + 1 < length && statement.charAt(i + 1) == quote) {
+          i += 2;
+          continue;
+        }
+        return i + 1;
+      }
+      i++;
+    }
+    return length;
+  }
+
+  private static int skipWhitespace(String statement, int start) {
+    int i = start;
+    while (i < statement.length() && Character.isWhitespace(statement.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '$';
+  }
+
+  private SqlListNormalizer() {}
+}
@@ -8,8 +8,10 @@ package io.opentelemetry.instrumentation.api.incubator.semconv.db;
 import static io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics.CounterNames.SQL_STATEMENT_SANITIZER_CACHE_MISS;
 
 import com.google.auto.value.AutoValue;
+import io.opentelemetry.instrumentation.api.internal.ConfigPropertiesUtil;
 import io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics;
 import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import io.opentelemetry.instrumentation.api.internal.cache.CacheStats;
 import javax.annotation.Nullable;
 
 /**
@@ -19,17 +21,74 @@ import javax.annotation.Nullable;
 public final class SqlStatementSanitizer {
   private static final SupportabilityMetrics supportability = SupportabilityMetrics.instance();
 
-  private static final Cache<CacheKey, SqlStatementInfo> sqlToStatementInfoCache =
-      Cache.bounded(1000);
+  // the number of cached statements, unless the cache is bounded by weight
+  private static final int DEFAULT_CACHE_SIZE = 1000;
+
+  // the weight of a hashed cache key, roughly its size in chars
+  private static final int HASHED_KEY_WEIGHT = 24;
+
+  // keys are either CacheKey or HashedSqlCacheKey instances
+  private static final Cache<Object, SqlStatementInfo> sqlToStatementInfoCache = createCache();
+
+  private static final boolean NORMALIZE_LISTS =
+      ConfigPropertiesUtil.getBoolean(
+          "otel.instrumentation.experimental.db-statement-sanitizer.normalize-lists", false);
+
+  // statements longer than this are cut on a token boundary and only the prefix is sanitized; a
+  // non-positive value means no limit
+  private static final int MAX_STATEMENT_LENGTH =
+      ConfigPropertiesUtil.getInt(
+          "otel.instrumentation.experimental.db-statement-sanitizer.max-statement-length", 0);
+
+  // when enabled the cache is keyed by a hash of the statement, so that it doesn't retain the raw
+  // statements
+  private static final boolean HASH_KEYS =
+      ConfigPropertiesUtil.getBoolean(
+          "otel.instrumentation.experimental.db-statement-sanitizer.hash-keys", false);
+
+  private static Cache<Object, SqlStatementInfo> createCache() {
+    CacheStats stats = CacheStats.create("sql-statement-sanitizer");
+    // when set, the cache is bounded by the total length in chars of the cached statements, both
+    // raw and sanitized, so that a few huge statements can't evict many small ones
+    int maximumWeight =
+        ConfigPropertiesUtil.getInt(
+            "otel.instrumentation.experimental.db-statement-sanitizer.cache-max-weight", 0);
+    if (maximumWeight > 0) {
+      return Cache.boundedTinyLfu(maximumWeight, SqlStatementSanitizer::weigh, stats);
+    }
+    // the eviction policy follows otel.instrumentation.experimental.cache.bounded-policy
+    return Cache.bounded(DEFAULT_CACHE_SIZE, stats);
+  }
 
   public static SqlStatementSanitizer create(boolean statementSanitizationEnabled) {
-    return new SqlStatementSanitizer(statementSanitizationEnabled);
+    return new SqlStatementSanitizer(
+        statementSanitizationEnabled, NORMALIZE_LISTS, MAX_STATEMENT_LENGTH, HASH_KEYS);
+  }
+
+  // Visible for tests
+  static SqlStatementSanitizer create(
+      boolean statementSanitizationEnabled,
+      boolean normalizeLists,
+      int maxStatementLength,
+      boolean hashKeys) {
+    return new SqlStatementSanitizer(
+        statementSanitizationEnabled, normalizeLists, maxStatementLength, hashKeys);
   }
 
   private final boolean statementSanitizationEnabled;
+  private final boolean normalizeLists;
+  private final int maxStatementLength;
+  private final boolean hashKeys;
 
-  private SqlStatementSanitizer(boolean statementSanitizationEnabled) {
+  private SqlStatementSanitizer(
+      boolean statementSanitizationEnabled,
+      boolean normalizeLists,
+      int maxStatementLength,
+      boolean hashKeys) {
     this.statementSanitizationEnabled = statementSanitizationEnabled;
+    this.normalizeLists = normalizeLists;
+    this.maxStatementLength = maxStatementLength;
+    this.hashKeys = hashKeys;
   }
 
   public SqlStatementInfo sanitize(@Nullable String statement) {
@@ -40,23 +99,69 @@ public final class SqlStatementSanitizer {
     if (!statementSanitizationEnabled || statement == null) {
       return SqlStatementInfo.create(statement, null, null);
     }
+    boolean truncated = false;
+    if (maxStatementLength > 0 && statement.length() > maxStatementLength) {
+      // only the prefix is sanitized and cached, so the cost doesn't grow with the statement length
+      statement =
+          statement.substring(0, SqlStatementTruncator.prefixLength(statement, maxStatementLength));
+      truncated = true;
+    }
+    if (normalizeLists) {
+      // collapse IN-lists and VALUES tuples before the lookup so that they share a cache entry
+      statement = SqlListNormalizer.normalize(statement);
+    }
+    if (!hashKeys) {
+      return sqlToStatementInfoCache.computeIfAbsent(
+          CacheKey.create(statement, dialect, normalizeLists, truncated),
+          k -> {
+            CacheKey key = (CacheKey) k;
+            return sanitize(
+                key.getStatement(), key.getDialect(), key.getNormalizeLists(), key.isTruncated());
+          });
+    }
+    String keyStatement = statement;
+    boolean keyTruncated = truncated;
     return sqlToStatementInfoCache.computeIfAbsent(
-        CacheKey.create(statement, dialect),
-        k -> {
-          supportability.incrementCounter(SQL_STATEMENT_SANITIZER_CACHE_MISS);
-          return AutoSqlSanitizer.sanitize(statement, dialect);
-        });
+        HashedSqlCacheKey.create(statement, dialect, normalizeLists, truncated),
+        k -> sanitize(keyStatement, dialect, normalizeLists, keyTruncated));
+  }
+
+  private static SqlStatementInfo sanitize(
+      String statement, SqlDialect dialect, boolean normalizeLists, boolean truncated) {
+    supportability.incrementCounter(SQL_STATEMENT_SANITIZER_CACHE_MISS);
+    SqlStatementInfo info = AutoSqlSanitizer.sanitize(statement, dialect, normalizeLists);
+    if (!truncated) {
+      return info;
+    }
+    String fullStatement = info.getFullStatement();
+    return SqlStatementInfo.create(
+        (fullStatement == null ? "" : fullStatement) + SqlStatementTruncator.TRUNCATION_MARKER,
+        info.getOperation(),
+        info.getMainIdentifier());
+  }
+
+  private static int weigh(Object key, SqlStatementInfo info) {
+    int keyWeight =
+        key instanceof CacheKey ? ((CacheKey) key).getStatement().length() : HASHED_KEY_WEIGHT;
+    String fullStatement = info.getFullStatement();
+    return Math.max(keyWeight + (fullStatement == null ? 0 : fullStatement.length()), 1);
   }
 
   @AutoValue
   abstract static class CacheKey {
 
-    static CacheKey create(String statement, SqlDialect dialect) {
-      return new AutoValue_SqlStatementSanitizer_CacheKey(statement, dialect);
+    static CacheKey create(
+        String statement, SqlDialect dialect, boolean normalizeLists, boolean truncated) {
+      return new AutoValue_SqlStatementSanitizer_CacheKey(
+          statement, dialect, normalizeLists, truncated);
     }
 
     abstract String getStatement();
 
     abstract SqlDialect getDialect();
+
+    abstract boolean getNormalizeLists();
+
+    abstract boolean isTruncated();
   }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+/**
+ * Finds where a very long SQL statement can be cut so that only a bounded prefix of it has to be
+ * sanitized. The cut is never placed inside a quoted string, a comment or a word: the lexer would
+ * not recognize an unterminated string literal and would copy its content into the sanitized
+ * statement, and a cut identifier would produce a wrong table name.
+ *
+ * <p>Only the prefix is scanned, so the cost doesn't depend on the length of the statement.
+ */
+final class SqlStatementTruncator {
+
+  static final String TRUNCATION_MARKER = "...";
+
+  /**
+   * Returns the length of the longest prefix of {@code statement} that is at most {@code
+   * maxLength} characters long and ends on a token boundary.
+   */
+  static int prefixLength(String statement, int maxLength) {
+    if (statement.length() <= maxLength) {
+      return statement.length();
+    }
+    int safeLength = 0;
+    int i = 0;
+    while (i < maxLength) {
+      char c = statement.charAt(i);
+      int end;
+      if (c == '\'' || c == '"' || c == '`') {
+        end = quotedEnd(statement, i, maxLength);
+      } else if (c == '$' && isAt(statement, i, "$$")) {
+        end = tokenEnd(statement, i + 2, "$$", maxLength);
+      } else if (c == '/' && isAt(statement, i, "/*")) {
+        end = tokenEnd(statement, i + 2, "*/", maxLength);
+      } else if (c == '-' && isAt(statement, i, "--")) {
+        end = tokenEnd(statement, i + 2, "\n", maxLength);
+      } else if (isIdentifierPart(c)) {
+        end = i + 1;
+        while (end <= maxLength && isIdentifierPart(statement.charAt(end))) {
+          end++;
+        }
+      } else {
+        end = i + 1;
+      }
+      if (end < 0 || end > maxLength) {
+        break;
+      }
+      i = end;
+      safeLength = end;
+    }
+    return safeLength;
+  }
+
+  /**
+   * Returns the index after the closing quote of the quoted string starting at {@code start}, or
+   * -1 if it is not closed within {@code maxLength} characters.
+   */
+  private static int quotedEnd(String statement, int start, int maxLength) {
+    char quote = statement.charAt(start);
+    int i = start + 1;
+    while (i < maxLength) {
+      if (statement.charAt(i) == quote) {
+        // doubled quotes are an escaped quote
+        if (quote != '`' && statement.charAt(i + 1) == quote) {
+          i += 2;
+          continue;
+        }
+        return i + 1;
+      }
+      i++;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index after the first occurrence of {@code token} at or after {@code start}, or -1
+   * if it does not occur within {@code maxLength} characters.
+   */
+  private static int tokenEnd(String statement, int start, String token, int maxLength) {
+    for (int i = start; i + token.length() <= maxLength; i++) {
+      if (isAt(statement, i, token)) {
+        return i + token.length();
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isAt(String statement, int index, String token) {
+    return statement.startsWith(token, index);
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+  }
+
+  private SqlStatementTruncator() {}
+}
@@ -26,6 +26,27 @@ public class SqlStatementSanitizerTest {
     assertThat(result.getFullStatement()).isEqualTo(expected);
   }
 
+  @ParameterizedTest
+  @ArgumentsSource(SqlArgs.class)
+  void sanitizeSqlWithHashKeys(String original, String expected) {
+    SqlStatementInfo result = SqlStatementSanitizer.create(true, false, 0, true).sanitize(original);
+    assertThat(result.getFullStatement()).isEqualTo(expected);
+  }
+
+  @Test
+  void hashedCacheKeys() {
+    HashedSqlCacheKey key = HashedSqlCacheKey.create("SELECT 1", SqlDialect.DEFAULT, false, false);
+
+    assertThat(HashedSqlCacheKey.create("SELECT 1", SqlDialect.DEFAULT, false, false))
+        .isEqualTo(key);
+    assertThat(HashedSqlCacheKey.create("SELECT 2", SqlDialect.DEFAULT, false, false))
+        .isNotEqualTo(key);
+    assertThat(HashedSqlCacheKey.create("SELECT 1", SqlDialect.COUCHBASE, false, false))
+        .isNotEqualTo(key);
+    assertThat(HashedSqlCacheKey.create("SELECT 1 ", SqlDialect.DEFAULT, false, false))
+        .isNotEqualTo(key);
+  }
+
   @ParameterizedTest
   @ArgumentsSource(CouchbaseArgs.class)
   void normalizeCouchbase(String original, String expected) {
@@ -137,6 +158,49 @@ public class SqlStatementSanitizerTest {
     assertThat(sanitized).isEqualTo("select col from table where col in (?)");
   }
 
+  @ParameterizedTest
+  @ArgumentsSource(NormalizeListsArgs.class)
+  void normalizeLists(String original, String expected) {
+    SqlStatementInfo result = SqlStatementSanitizer.create(true, true, 0, false).sanitize(original);
+    assertThat(result.getFullStatement()).isEqualTo(expected);
+  }
+
+  @Test
+  void veryLongStatementsAreSanitizedUpToMaxLength() {
+    StringBuilder sb = new StringBuilder("INSERT INTO table (a, b) VALUES ('");
+    for (int i = 0; i < 100_000; i++) {
+      sb.append("secret");
+    }
+    sb.append("', 1)");
+
+    SqlStatementInfo result =
+        SqlStatementSanitizer.create(true, false, 1000, false).sanitize(sb.toString());
+
+    assertThat(result)
+        .isEqualTo(
+            SqlStatementInfo.create("INSERT INTO table (a, b) VALUES (...", "INSERT", "table"));
+  }
+
+  @Test
+  void prefixEndsOnTokenBoundary() {
+    assertThat(SqlStatementTruncator.prefixLength("select * from t", 100)).isEqualTo(15);
+    assertThat(SqlStatementTruncator.prefixLength("select * from table1", 17)).isEqualTo(14);
+    assertThat(SqlStatementTruncator.prefixLength("select 'it''s' from t", 14)).isEqualTo(14);
+    assertThat(SqlStatementTruncator.prefixLength("select 'it''s' from t", 13)).isEqualTo(7);
+    assertThat(SqlStatementTruncator.prefixLength("select /* comment */ 1", 12)).isEqualTo(7);
+  }
+
+  @Test
+  void normalizeListsCollapsesCacheKey() {
+    assertThat(
+            SqlListNormalizer.normalize(
+                "insert into t (a, b) values (?, ?), (?, ?) /* in (?, ?) */ where x in (?, ?)"))
+        .isEqualTo("insert into t (a, b) values (?, ?) /* in (?, ?) */ where x in (?)");
+
+    String unchanged = "select * from t where x in (?) and y = 'in (?, ?)'";
+    assertThat(SqlListNormalizer.normalize(unchanged)).isSameAs(unchanged);
+  }
+
   static class SqlArgs implements ArgumentsProvider {
 
     @Override
@@ -260,6 +324,32 @@ public class SqlStatementSanitizerTest {
     }
   }
 
+  static class NormalizeListsArgs implements ArgumentsProvider {
+
+    @Override
+    public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+      return Stream.of(
+          Arguments.of(
+              "select * from t where x in (?, ?, ?) and y in (1, 2)",
+              "select * from t where x in (?) and y in (?)"),
+          Arguments.of(
+              "insert into t (a, b) values (?, ?), (?, ?), (?, ?)",
+              "insert into t (a, b) values (?, ?)"),
+          Arguments.of(
+              "INSERT INTO t (a, b) VALUES (1, 'x'), (2, 'y'),(3, 'z')",
+              "INSERT INTO t (a, b) VALUES (?, ?)"),
+          Arguments.of(
+              "insert into t (a, b) values (?, now()), (?, now())",
+              "insert into t (a, b) values (?, now())"),
+          Arguments.of(
+              "insert into t (a, b) values (1, now()), (2, null)",
+              "insert into t (a, b) values (?, now()), (?, null)"),
+          Arguments.of(
+              "select * from t where name = 'values (?, ?), (?, ?)'",
+              "select * from t where name = ?"));
+    }
+  }
+
   static class SimplifyArgs implements ArgumentsProvider {
 
     static Function<String, SqlStatementInfo> expect(String operation, String identifier) {
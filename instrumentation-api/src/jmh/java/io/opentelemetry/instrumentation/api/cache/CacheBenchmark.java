@@ -6,11 +6,16 @@
 package io.opentelemetry.instrumentation.api.cache;
 
 import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -155,4 +160,92 @@ public class CacheBenchmark {
     blackhole.consume(boundedSmallCache.get(key));
     blackhole.consume(boundedSmallCache.get(key2));
   }
+
+  @Benchmark
+  @Threads(1)
+  public Object threads01_distribution(BoundedCacheState state, KeyDistributionState keys) {
+    return state.cache.computeIfAbsent(keys.next(), state.mappingFunction);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Object threads08_distribution(BoundedCacheState state, KeyDistributionState keys) {
+    return state.cache.computeIfAbsent(keys.next(), state.mappingFunction);
+  }
+
+  @Benchmark
+  @Threads(32)
+  public Object threads32_distribution(BoundedCacheState state, KeyDistributionState keys) {
+    return state.cache.computeIfAbsent(keys.next(), state.mappingFunction);
+  }
+
+  /** A bounded cache shared by all benchmark threads, sized like the sql sanitizer cache. */
+  @State(Scope.Benchmark)
+  public static class BoundedCacheState {
+    private static final int CAPACITY = 1000;
+
+    @Param({"lru", "tinylfu"})
+    String policy;
+
+    Cache<Integer, Object> cache;
+    final Function<Integer, Object> mappingFunction = String::valueOf;
+
+    @Setup
+    public void setUp() {
+      cache = policy.equals("lru") ? Cache.bounded(CAPACITY) : Cache.boundedTinyLfu(CAPACITY);
+    }
+  }
+
+  /**
+   * Per-thread sequence of keys. {@code zipfian} draws keys from a skewed distribution over a
+   * keyspace ten times the cache capacity, {@code scan} additionally mixes in a stream of keys
+   * that are never repeated (like a long tail of unique sql statements).
+   */
+  @State(Scope.Thread)
+  public static class KeyDistributionState {
+    private static final int KEYSPACE = 10_000;
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+    private static final double ZIPF_EXPONENT = 1.0;
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    @Param({"zipfian", "scan"})
+    String distribution;
+
+    private final int[] keys = new int[SEQUENCE_LENGTH];
+    private int index;
+    private int uniqueKey;
+
+    @Setup
+    public void setUp() {
+      Random random = new Random(Thread.currentThread().getName().hashCode());
+      double[] cumulativeProbabilities = zipfCumulativeProbabilities();
+      for (int i = 0; i < keys.length; i++) {
+        int position = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+        keys[i] = position >= 0 ? position : Math.min(-position - 1, KEYSPACE - 1);
+      }
+      uniqueKey = KEYSPACE + threadCounter.getAndIncrement() * (1 << 24);
+    }
+
+    Integer next() {
+      int i = index++ & (SEQUENCE_LENGTH - 1);
+      if (distribution.equals("scan") && (i & 3) == 0) {
+        // every fourth access is to a key that was never seen before
+        return uniqueKey++;
+      }
+      return keys[i];
+    }
+
+    private static double[] zipfCumulativeProbabilities() {
+      double[] cumulative = new double[KEYSPACE];
+      double sum = 0;
+      for (int i = 0; i < KEYSPACE; i++) {
+        sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+        cumulative[i] = sum;
+      }
+      for (int i = 0; i < KEYSPACE; i++) {
+        cumulative[i] /= sum;
+      }
+      return cumulative;
+    }
+  }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.cache;
+
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link Cache#weak()} and {@link Cache#weakStriped()} when used like the virtual fields
+ * that can't be stored in an injected field: many lookups of long-lived keys, mixed with keys that
+ * are set, read and removed again (e.g. tasks submitted to an executor).
+ */
+@Fork(3)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WeakCacheBenchmark {
+
+  @Benchmark
+  @Threads(1)
+  public Object threads01_get(CacheState state) {
+    return state.cache.get(state.randomKey());
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Object threads08_get(CacheState state) {
+    return state.cache.get(state.randomKey());
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Object threads01_putGetRemove(CacheState state) {
+    return putGetRemove(state);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Object threads08_putGetRemove(CacheState state) {
+    return putGetRemove(state);
+  }
+
+  private static Object putGetRemove(CacheState state) {
+    Object task = new Object();
+    state.cache.put(task, state);
+    Object value = state.cache.get(task);
+    state.cache.remove(task);
+    return value;
+  }
+
+  @State(Scope.Benchmark)
+  public static class CacheState {
+    private static final int KEYS = 1024;
+
+    @Param({"weak", "weakStriped"})
+    String implementation;
+
+    Cache<Object, Object> cache;
+    final Object[] keys = new Object[KEYS];
+
+    @Setup
+    public void setUp() {
+      cache = implementation.equals("weak") ? Cache.weak() : Cache.weakStriped();
+      for (int i = 0; i < KEYS; i++) {
+        keys[i] = new Object();
+        cache.put(keys[i], i);
+      }
+    }
+
+    Object randomKey() {
+      return keys[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+  }
+}
@@ -9,6 +9,8 @@ import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.instrumentation.api.semconv.http.HttpClientAttributesExtractor;
 import io.opentelemetry.instrumentation.api.semconv.http.HttpClientAttributesGetter;
+import io.opentelemetry.instrumentation.api.semconv.http.HttpServerAttributesExtractor;
+import io.opentelemetry.instrumentation.api.semconv.http.HttpServerAttributesGetter;
 import io.opentelemetry.instrumentation.api.semconv.http.HttpSpanNameExtractor;
 import java.net.InetSocketAddress;
 import java.util.Collections;
@@ -21,7 +23,9 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
@@ -33,24 +37,57 @@ import org.openjdk.jmh.annotations.Warmup;
 @State(Scope.Thread)
 public class InstrumenterBenchmark {
 
-  private static final Instrumenter<Void, Void> INSTRUMENTER =
-      Instrumenter.<Void, Void>builder(
-              OpenTelemetry.noop(),
-              "benchmark",
-              HttpSpanNameExtractor.create(ConstantHttpAttributesGetter.INSTANCE))
-          .addAttributesExtractor(
-              HttpClientAttributesExtractor.create(ConstantHttpAttributesGetter.INSTANCE))
-          .buildInstrumenter();
+  // run with the gc profiler (enabled by default in otel.jmh-conventions) to compare the bytes
+  // allocated per operation with and without reusing the operation buffers
+  @Param({"false", "true"})
+  boolean reuseOperationBuffers;
+
+  private Instrumenter<Void, Void> clientInstrumenter;
+  private Instrumenter<Void, Void> serverInstrumenter;
+
+  @Setup
+  public void setUp() {
+    clientInstrumenter =
+        Instrumenter.<Void, Void>builder(
+                OpenTelemetry.noop(),
+                "benchmark",
+                HttpSpanNameExtractor.create(ConstantHttpAttributesGetter.INSTANCE))
+            .addAttributesExtractor(
+                HttpClientAttributesExtractor.create(ConstantHttpAttributesGetter.INSTANCE))
+            .setReuseOperationBuffers(reuseOperationBuffers)
+            .buildInstrumenter();
+    serverInstrumenter =
+        Instrumenter.<Void, Void>builder(
+                OpenTelemetry.noop(),
+                "benchmark",
+                HttpSpanNameExtractor.create(ConstantHttpServerAttributesGetter.INSTANCE))
+            .addAttributesExtractor(
+                HttpServerAttributesExtractor.create(ConstantHttpServerAttributesGetter.INSTANCE))
+            .setReuseOperationBuffers(reuseOperationBuffers)
+            .buildInstrumenter();
+  }
 
   @Benchmark
   public Context start() {
-    return INSTRUMENTER.start(Context.root(), null);
+    return clientInstrumenter.start(Context.root(), null);
   }
 
   @Benchmark
   public Context startEnd() {
-    Context context = INSTRUMENTER.start(Context.root(), null);
-    INSTRUMENTER.end(context, null, null, null);
+    Context context = clientInstrumenter.start(Context.root(), null);
+    clientInstrumenter.end(context, null, null, null);
+    return context;
+  }
+
+  @Benchmark
+  public Context serverStart() {
+    return serverInstrumenter.start(Context.root(), null);
+  }
+
+  @Benchmark
+  public Context serverStartEnd() {
+    Context context = serverInstrumenter.start(Context.root(), null);
+    serverInstrumenter.end(context, null, null, null);
     return context;
   }
 
@@ -116,4 +153,73 @@ public class InstrumenterBenchmark {
       return PEER_ADDRESS;
     }
   }
+
+  enum ConstantHttpServerAttributesGetter implements HttpServerAttributesGetter<Void, Void> {
+    INSTANCE;
+
+    private static final InetSocketAddress PEER_ADDRESS =
+        InetSocketAddress.createUnresolved("10.0.0.1", 54321);
+
+    @Override
+    public String getUrlScheme(Void unused) {
+      return "https";
+    }
+
+    @Override
+    public String getUrlPath(Void unused) {
+      return "/benchmark";
+    }
+
+    @Override
+    public String getUrlQuery(Void unused) {
+      return "q=1";
+    }
+
+    @Override
+    public String getHttpRoute(Void unused) {
+      return "/benchmark";
+    }
+
+    @Override
+    public String getHttpRequestMethod(Void unused) {
+      return "GET";
+    }
+
+    @Override
+    public List<String> getHttpRequestHeader(Void unused, String name) {
+      if (name.equalsIgnoreCase("host")) {
+        return Collections.singletonList("opentelemetry.io:443");
+      }
+      if (name.equalsIgnoreCase("user-agent")) {
+        return Collections.singletonList("OpenTelemetryBot");
+      }
+      return Collections.emptyList();
+    }
+
+    @Override
+    public Integer getHttpResponseStatusCode(Void unused, Void unused2, @Nullable Throwable error) {
+      return 200;
+    }
+
+    @Override
+    public List<String> getHttpResponseHeader(Void unused, Void unused2, String name) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public String getNetworkProtocolName(Void unused, @Nullable Void unused2) {
+      return "http";
+    }
+
+    @Override
+    public String getNetworkProtocolVersion(Void unused, @Nullable Void unused2) {
+      return "1.1";
+    }
+
+    @Override
+    public InetSocketAddress getNetworkPeerInetSocketAddress(
+        Void request, @Nullable Void response) {
+      return PEER_ADDRESS;
+    }
+  }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.semconv.db;
+
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlStatementInfo;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlStatementSanitizer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the SQL statement sanitizer. {@code sqlCached} is the common case of a statement that
+ * was sanitized before, {@code sqlUncached} uses a distinct statement on every invocation so that
+ * it measures the lexer. The Redis command sanitizer is measured by {@link
+ * RedisSanitizerBenchmark}.
+ */
+@Fork(3)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Thread)
+public class DbSanitizerBenchmark {
+
+  private static final SqlStatementSanitizer sqlSanitizer = SqlStatementSanitizer.create(true);
+
+  private static final int UNCACHED_STATEMENTS = 1 << 16;
+
+  @Param({"select", "join", "insert", "inList"})
+  String statementType;
+
+  private String statement;
+  private String[] uncachedStatements;
+  private int index;
+
+  @Setup
+  public void setUp() {
+    statement = statement(statementType, 0);
+    uncachedStatements = new String[UNCACHED_STATEMENTS];
+    for (int i = 0; i < UNCACHED_STATEMENTS; i++) {
+      uncachedStatements[i] = statement(statementType, i + 1);
+    }
+  }
+
+  private static String statement(String type, int id) {
+    switch (type) {
+      case "select":
+        return "SELECT o.id, o.status, o.total FROM orders o WHERE o.customer_id = "
+            + id
+            + " AND o.status = 'OPEN' ORDER BY o.created_at DESC";
+      case "join":
+        return "SELECT c.name, sum(i.price * i.quantity) FROM customers c"
+            + " JOIN orders o ON o.customer_id = c.id JOIN items i ON i.order_id = o.id"
+            + " WHERE c.region = 'EU' AND o.created_at > '2024-01-01' AND c.id = "
+            + id
+            + " GROUP BY c.name";
+      case "insert":
+        return "INSERT INTO audit_log (user_id, action, payload, created_at) VALUES ("
+            + id
+            + ", 'login', '{\"ip\":\"203.0.113.7\",\"agent\":\"curl/8.4.0\"}', now())";
+      case "inList":
+        StringBuilder sb =
+            new StringBuilder("SELECT * FROM products WHERE tenant_id = ")
+                .append(id)
+                .append(" AND id IN (?");
+        // vary the arity like an ORM loading a batch of entities would
+        for (int i = 0; i < id % 50; i++) {
+          sb.append(", ?");
+        }
+        return sb.append(')').toString();
+      default:
+        throw new IllegalArgumentException(type);
+    }
+  }
+
+  @Benchmark
+  public SqlStatementInfo sqlCached() {
+    return sqlSanitizer.sanitize(statement);
+  }
+
+  @Benchmark
+  public SqlStatementInfo sqlUncached() {
+    String uncached = uncachedStatements[index];
+    index = (index + 1) & (UNCACHED_STATEMENTS - 1);
+    return sqlSanitizer.sanitize(uncached);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.semconv.db;
+
+import static java.util.Arrays.asList;
+
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.RedisCommandSanitizer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the Redis command sanitizer with commands that have a few arguments to mask. */
+@Fork(3)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Thread)
+public class RedisSanitizerBenchmark {
+
+  private static final RedisCommandSanitizer redisSanitizer = RedisCommandSanitizer.create(true);
+
+  private static final List<String> SET_ARGS =
+      asList("session:8f2c", "{\"user\":42}", "EX", "3600");
+  private static final List<String> HMSET_ARGS =
+      asList("user:42", "name", "Jane", "email", "jane@example.com", "plan", "pro");
+  private static final List<String> AUTH_ARGS = asList("default", "s3cr3t");
+
+  @Benchmark
+  public String redisSet() {
+    return redisSanitizer.sanitize("SET", SET_ARGS);
+  }
+
+  @Benchmark
+  public String redisHmset() {
+    return redisSanitizer.sanitize("HMSET", HMSET_ARGS);
+  }
+
+  @Benchmark
+  public String redisAuth() {
+    return redisSanitizer.sanitize("AUTH", AUTH_ARGS);
+  }
+}
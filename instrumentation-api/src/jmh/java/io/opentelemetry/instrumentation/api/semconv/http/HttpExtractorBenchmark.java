@@ -0,0 +1,143 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.semconv.http;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.api.instrumenter.AttributesExtractor;
+import io.opentelemetry.instrumentation.api.instrumenter.SpanNameExtractor;
+import io.opentelemetry.instrumentation.api.semconv.http.HttpFixtures.ClientGetter;
+import io.opentelemetry.instrumentation.api.semconv.http.HttpFixtures.Request;
+import io.opentelemetry.instrumentation.api.semconv.http.HttpFixtures.Response;
+import io.opentelemetry.instrumentation.api.semconv.http.HttpFixtures.ServerGetter;
+import io.opentelemetry.instrumentation.api.semconv.network.internal.AddressAndPort;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the HTTP semantic convention extractors on their own, without the {@link
+ * io.opentelemetry.instrumentation.api.instrumenter.Instrumenter}. Run with the gc profiler
+ * (enabled by default in otel.jmh-conventions) to track the bytes allocated per request.
+ */
+@Fork(3)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Thread)
+public class HttpExtractorBenchmark {
+
+  private static final AttributesExtractor<Request, Response> serverExtractor =
+      HttpServerAttributesExtractor.create(ServerGetter.INSTANCE);
+  private static final AttributesExtractor<Request, Response> capturingServerExtractor =
+      HttpServerAttributesExtractor.builder(ServerGetter.INSTANCE)
+          .setCapturedRequestHeaders(
+              Arrays.asList(
+                  "Host",
+                  "User-Agent",
+                  "Accept",
+                  "Accept-Encoding",
+                  "Accept-Language",
+                  "X-Forwarded-For",
+                  "X-Request-Id",
+                  "Traceparent",
+                  "Content-Type",
+                  "Content-Length"))
+          .setCapturedResponseHeaders(Arrays.asList("Content-Type", "Content-Length"))
+          .build();
+  private static final AttributesExtractor<Request, Response> clientExtractor =
+      HttpClientAttributesExtractor.create(ClientGetter.INSTANCE);
+  private static final SpanNameExtractor<Request> serverSpanNameExtractor =
+      HttpSpanNameExtractor.create(ServerGetter.INSTANCE);
+  private static final SpanNameExtractor<Request> clientSpanNameExtractor =
+      HttpSpanNameExtractor.create(ClientGetter.INSTANCE);
+  private static final ForwardedHostAddressAndPortExtractor<Request> forwardedHostExtractor =
+      new ForwardedHostAddressAndPortExtractor<>(ServerGetter.INSTANCE);
+
+  private final Request serverRequest = HttpFixtures.serverRequest();
+  private final Request proxiedServerRequest = HttpFixtures.proxiedServerRequest();
+  private final Request clientRequest = HttpFixtures.clientRequest();
+  private final Response response = HttpFixtures.response();
+
+  @Benchmark
+  public Attributes serverOnStart() {
+    AttributesBuilder attributes = Attributes.builder();
+    serverExtractor.onStart(attributes, Context.root(), serverRequest);
+    return attributes.build();
+  }
+
+  @Benchmark
+  public Attributes serverOnStartOnEnd() {
+    AttributesBuilder attributes = Attributes.builder();
+    serverExtractor.onStart(attributes, Context.root(), serverRequest);
+    serverExtractor.onEnd(attributes, Context.root(), serverRequest, response, null);
+    return attributes.build();
+  }
+
+  @Benchmark
+  public Attributes serverOnStartOnEndCapturedHeaders() {
+    AttributesBuilder attributes = Attributes.builder();
+    capturingServerExtractor.onStart(attributes, Context.root(), serverRequest);
+    capturingServerExtractor.onEnd(attributes, Context.root(), serverRequest, response, null);
+    return attributes.build();
+  }
+
+  @Benchmark
+  public Attributes proxiedServerOnStart() {
+    AttributesBuilder attributes = Attributes.builder();
+    serverExtractor.onStart(attributes, Context.root(), proxiedServerRequest);
+    return attributes.build();
+  }
+
+  @Benchmark
+  public Attributes clientOnStart() {
+    AttributesBuilder attributes = Attributes.builder();
+    clientExtractor.onStart(attributes, Context.root(), clientRequest);
+    return attributes.build();
+  }
+
+  @Benchmark
+  public Attributes clientOnStartOnEnd() {
+    AttributesBuilder attributes = Attributes.builder();
+    clientExtractor.onStart(attributes, Context.root(), clientRequest);
+    clientExtractor.onEnd(attributes, Context.root(), clientRequest, response, null);
+    return attributes.build();
+  }
+
+  @Benchmark
+  public String serverSpanName() {
+    return serverSpanNameExtractor.extract(serverRequest);
+  }
+
+  @Benchmark
+  public String clientSpanName() {
+    return clientSpanNameExtractor.extract(clientRequest);
+  }
+
+  @Benchmark
+  public AddressAndPort hostHeader() {
+    AddressAndPort addressAndPort = new AddressAndPort();
+    forwardedHostExtractor.extract(addressAndPort, serverRequest);
+    return addressAndPort;
+  }
+
+  @Benchmark
+  public AddressAndPort forwardedHeader() {
+    AddressAndPort addressAndPort = new AddressAndPort();
+    forwardedHostExtractor.extract(addressAndPort, proxiedServerRequest);
+    return addressAndPort;
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.semconv.http;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/** Realistic HTTP requests and responses, and the getters reading them, used by the benchmarks. */
+final class HttpFixtures {
+
+  static Request serverRequest() {
+    return new Request("GET", "https://shop.example.com:8443/api/v1/orders/12345?expand=items")
+        .setRoute("/api/v1/orders/{orderId}")
+        .setPeer(InetSocketAddress.createUnresolved("10.12.0.34", 51234))
+        .addHeader("host", "shop.example.com:8443")
+        .addHeader(
+            "user-agent",
+            "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko)"
+                + " Chrome/120.0.0.0 Safari/537.36")
+        .addHeader("accept", "application/json")
+        .addHeader("accept-encoding", "gzip, deflate, br")
+        .addHeader("x-forwarded-for", "203.0.113.7, 10.12.0.1");
+  }
+
+  static Request proxiedServerRequest() {
+    return serverRequest()
+        .addHeader("forwarded", "for=203.0.113.7;proto=https;host=shop.example.com:443")
+        .addHeader("x-forwarded-host", "shop.example.com");
+  }
+
+  static Request clientRequest() {
+    return new Request("POST", "http://inventory.internal.svc:8080/v2/reservations?dryRun=false")
+        .setPeer(InetSocketAddress.createUnresolved("10.96.4.2", 8080))
+        .addHeader("content-type", "application/json")
+        .addHeader("user-agent", "inventory-client/3.2.1");
+  }
+
+  static Response response() {
+    return new Response(200)
+        .addHeader("content-type", "application/json")
+        .addHeader("content-length", "1843");
+  }
+
+  static final class Request {
+    final String method;
+    final String url;
+    final String scheme;
+    final String path;
+    @Nullable final String query;
+    @Nullable String route;
+    @Nullable InetSocketAddress peer;
+    final Map<String, List<String>> headers = new HashMap<>();
+
+    Request(String method, String url) {
+      this.method = method;
+      this.url = url;
+      int schemeEnd = url.indexOf("://");
+      this.scheme = url.substring(0, schemeEnd);
+      int pathStart = url.indexOf('/', schemeEnd + 3);
+      int queryStart = url.indexOf('?', pathStart);
+      this.path = queryStart < 0 ? url.substring(pathStart) : url.substring(pathStart, queryStart);
+      this.query = queryStart < 0 ? null : url.substring(queryStart + 1);
+    }
+
+    Request setRoute(String route) {
+      this.route = route;
+      return this;
+    }
+
+    Request setPeer(InetSocketAddress peer) {
+      this.peer = peer;
+      return this;
+    }
+
+    Request addHeader(String name, String... values) {
+      headers.put(name, asList(values));
+      return this;
+    }
+  }
+
+  static final class Response {
+    final int statusCode;
+    final Map<String, List<String>> headers = new HashMap<>();
+
+    Response(int statusCode) {
+      this.statusCode = statusCode;
+    }
+
+    Response addHeader(String name, String value) {
+      headers.put(name, singletonList(value));
+      return this;
+    }
+  }
+
+  private static List<String> header(Map<String, List<String>> headers, String name) {
+    List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+    return values == null ? emptyList() : values;
+  }
+
+  enum ServerGetter implements HttpServerAttributesGetter<Request, Response> {
+    INSTANCE;
+
+    @Override
+    public String getUrlScheme(Request request) {
+      return request.scheme;
+    }
+
+    @Override
+    public String getUrlPath(Request request) {
+      return request.path;
+    }
+
+    @Nullable
+    @Override
+    public String getUrlQuery(Request request) {
+      return request.query;
+    }
+
+    @Nullable
+    @Override
+    public String getHttpRoute(Request request) {
+      return request.route;
+    }
+
+    @Override
+    public String getHttpRequestMethod(Request request) {
+      return request.method;
+    }
+
+    @Override
+    public List<String> getHttpRequestHeader(Request request, String name) {
+      return header(request.headers, name);
+    }
+
+    @Override
+    public Integer getHttpResponseStatusCode(
+        Request request, Response response, @Nullable Throwable error) {
+      return response.statusCode;
+    }
+
+    @Override
+    public List<String> getHttpResponseHeader(Request request, Response response, String name) {
+      return header(response.headers, name);
+    }
+
+    @Override
+    public String getNetworkProtocolName(Request request, @Nullable Response response) {
+      return "http";
+    }
+
+    @Override
+    public String getNetworkProtocolVersion(Request request, @Nullable Response response) {
+      return "1.1";
+    }
+
+    @Nullable
+    @Override
+    public InetSocketAddress getNetworkPeerInetSocketAddress(
+        Request request, @Nullable Response response) {
+      return request.peer;
+    }
+  }
+
+  enum ClientGetter implements HttpClientAttributesGetter<Request, Response> {
+    INSTANCE;
+
+    @Override
+    public String getUrlFull(Request request) {
+      return request.url;
+    }
+
+    @Override
+    public String getHttpRequestMethod(Request request) {
+      return request.method;
+    }
+
+    @Override
+    public List<String> getHttpRequestHeader(Request request, String name) {
+      return header(request.headers, name);
+    }
+
+    @Override
+    public Integer getHttpResponseStatusCode(
+        Request request, Response response, @Nullable Throwable error) {
+      return response.statusCode;
+    }
+
+    @Override
+    public List<String> getHttpResponseHeader(Request request, Response response, String name) {
+      return header(response.headers, name);
+    }
+
+    @Override
+    public String getNetworkProtocolName(Request request, @Nullable Response response) {
+      return "http";
+    }
+
+    @Override
+    public String getNetworkProtocolVersion(Request request, @Nullable Response response) {
+      return "1.1";
+    }
+
+    @Nullable
+    @Override
+    public String getServerAddress(Request request) {
+      return null;
+    }
+
+    @Nullable
+    @Override
+    public Integer getServerPort(Request request) {
+      return null;
+    }
+
+    @Nullable
+    @Override
+    public InetSocketAddress getNetworkPeerInetSocketAddress(
+        Request request, @Nullable Response response) {
+      return request.peer;
+    }
+  }
+
+  private HttpFixtures() {}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.semconv.url;
+
+import io.opentelemetry.instrumentation.api.incubator.semconv.net.internal.UrlParser;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@Fork(3)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Thread)
+public class UrlParserBenchmark {
+
+  @Param({
+    "https://opentelemetry.io/docs/",
+    "http://inventory.internal.svc:8080/v2/reservations?dryRun=false",
+    "https://user:password@[2001:db8::1]:8443/api/v1/orders/12345?expand=items#summary"
+  })
+  String url;
+
+  @Benchmark
+  public String getHost() {
+    return UrlParser.getHost(url);
+  }
+
+  @Benchmark
+  public Integer getPort() {
+    return UrlParser.getPort(url);
+  }
+
+  @Benchmark
+  public String getPath() {
+    return UrlParser.getPath(url);
+  }
+
+  @Benchmark
+  public void getHostPortAndPath(Blackhole blackhole) {
+    // what the peer service resolver does for every client request
+    blackhole.consume(UrlParser.getHost(url));
+    blackhole.consume(UrlParser.getPort(url));
+    blackhole.consume(UrlParser.getPath(url));
+  }
+}
@@ -15,6 +15,7 @@ import io.opentelemetry.context.ContextKey;
 import io.opentelemetry.instrumentation.api.internal.HttpRouteState;
 import io.opentelemetry.instrumentation.api.internal.InstrumenterAccess;
 import io.opentelemetry.instrumentation.api.internal.InstrumenterUtil;
+import io.opentelemetry.instrumentation.api.internal.InstrumentationProfiler;
 import io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics;
 import java.time.Instant;
 import java.util.concurrent.TimeUnit;
@@ -68,6 +69,10 @@ public class Instrumenter<REQUEST, RESPONSE> {
 
   private static final SupportabilityMetrics supportability = SupportabilityMetrics.instance();
 
+  // upper bound for the learned attribute buffer capacity, guards against a single misbehaving
+  // operation making all subsequent ones allocate oversized buffers
+  private static final int MAX_ATTRIBUTES_CAPACITY = 128;
+
   private final String instrumentationName;
   private final Tracer tracer;
   private final SpanNameExtractor<? super REQUEST> spanNameExtractor;
@@ -81,6 +86,18 @@ public class Instrumenter<REQUEST, RESPONSE> {
   private final boolean propagateOperationListenersToOnEnd;
   private final boolean enabled;
   private final SpanSuppressor spanSuppressor;
+  private final boolean reuseOperationBuffers;
+  private final SupportabilityMetrics.SpanCounters spanCounters;
+  private final InstrumentationProfiler.Profile profile;
+  // start attributes are passed to context customizers and operation listeners, which are allowed
+  // to keep a reference to them (e.g. the http server metrics keep them in the context until the
+  // operation ends), so the pooled buffer can only be used when there are none of them
+  private final boolean reuseStartAttributes;
+  // initial capacities of the attribute buffers; estimated from the attributes extractors and then
+  // raised to the largest attribute count seen so far. These are only sizing hints, so racy updates
+  // are fine
+  private int startAttributesCapacity;
+  private int endAttributesCapacity;
 
   @SuppressWarnings({"rawtypes", "unchecked"})
   Instrumenter(InstrumenterBuilder<REQUEST, RESPONSE> builder) {
@@ -97,6 +114,13 @@ public class Instrumenter<REQUEST, RESPONSE> {
     this.propagateOperationListenersToOnEnd = builder.propagateOperationListenersToOnEnd;
     this.enabled = builder.enabled;
     this.spanSuppressor = builder.buildSpanSuppressor();
+    this.reuseOperationBuffers = builder.reuseOperationBuffers;
+    this.spanCounters = supportability.spanCounters(instrumentationName);
+    this.profile = InstrumentationProfiler.instance().profile(instrumentationName);
+    this.reuseStartAttributes =
+        reuseOperationBuffers && contextCustomizers.length == 0 && operationListeners.length == 0;
+    this.startAttributesCapacity = builder.estimateAttributesCount();
+    this.endAttributesCapacity = startAttributesCapacity;
   }
 
   /**
@@ -164,6 +188,28 @@ public class Instrumenter<REQUEST, RESPONSE> {
   }
 
   private Context doStart(Context parentContext, REQUEST request, @Nullable Instant startTime) {
+    boolean sampled = profile.sample();
+    long profileStartNanos = sampled ? System.nanoTime() : 0;
+    OperationBuffers buffers = reuseOperationBuffers ? OperationBuffers.acquire() : null;
+    try {
+      Context context = doStart(parentContext, request, startTime, buffers);
+      spanCounters.recordStart();
+      return context;
+    } finally {
+      if (buffers != null) {
+        buffers.release();
+      }
+      if (sampled) {
+        profile.recordStart(System.nanoTime() - profileStartNanos);
+      }
+    }
+  }
+
+  private Context doStart(
+      Context parentContext,
+      REQUEST request,
+      @Nullable Instant startTime,
+      @Nullable OperationBuffers buffers) {
     SpanKind spanKind = spanKindExtractor.extract(request);
     SpanBuilder spanBuilder =
         tracer.spanBuilder(spanNameExtractor.extract(request)).setSpanKind(spanKind);
@@ -172,15 +218,24 @@ public class Instrumenter<REQUEST, RESPONSE> {
       spanBuilder.setStartTimestamp(startTime);
     }
 
-    SpanLinksBuilder spanLinksBuilder = new SpanLinksBuilderImpl(spanBuilder);
+    SpanLinksBuilder spanLinksBuilder =
+        buffers != null
+            ? buffers.spanLinksBuilder(spanBuilder)
+            : new SpanLinksBuilderImpl(spanBuilder);
     for (SpanLinksExtractor<? super REQUEST> spanLinksExtractor : spanLinksExtractors) {
       spanLinksExtractor.extract(spanLinksBuilder, parentContext, request);
     }
 
-    UnsafeAttributes attributes = new UnsafeAttributes();
+    UnsafeAttributes attributes =
+        buffers != null && reuseStartAttributes
+            ? buffers.attributes()
+            : new UnsafeAttributes(startAttributesCapacity);
     for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor : attributesExtractors) {
       extractor.onStart(attributes, parentContext, request);
     }
+    if (attributes.size() > startAttributesCapacity) {
+      startAttributesCapacity = Math.min(attributes.size(), MAX_ATTRIBUTES_CAPACITY);
+    }
 
     Context context = parentContext;
 
@@ -230,6 +285,29 @@ public class Instrumenter<REQUEST, RESPONSE> {
       @Nullable RESPONSE response,
       @Nullable Throwable error,
       @Nullable Instant endTime) {
+    boolean sampled = profile.sample();
+    long profileStartNanos = sampled ? System.nanoTime() : 0;
+    OperationBuffers buffers = reuseOperationBuffers ? OperationBuffers.acquire() : null;
+    try {
+      doEnd(context, request, response, error, endTime, buffers);
+      spanCounters.recordEnd();
+    } finally {
+      if (buffers != null) {
+        buffers.release();
+      }
+      if (sampled) {
+        profile.recordEnd(System.nanoTime() - profileStartNanos);
+      }
+    }
+  }
+
+  private void doEnd(
+      Context context,
+      REQUEST request,
+      @Nullable RESPONSE response,
+      @Nullable Throwable error,
+      @Nullable Instant endTime,
+      @Nullable OperationBuffers buffers) {
     Span span = Span.fromContext(context);
 
     if (error != null) {
@@ -237,10 +315,16 @@ public class Instrumenter<REQUEST, RESPONSE> {
       span.recordException(error);
     }
 
-    UnsafeAttributes attributes = new UnsafeAttributes();
+    // end attributes are only read synchronously by the operation listeners, it's safe to reuse
+    // them
+    UnsafeAttributes attributes =
+        buffers != null ? buffers.attributes() : new UnsafeAttributes(endAttributesCapacity);
     for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor : attributesExtractors) {
       extractor.onEnd(attributes, context, request, response, error);
     }
+    if (attributes.size() > endAttributesCapacity) {
+      endAttributesCapacity = Math.min(attributes.size(), MAX_ATTRIBUTES_CAPACITY);
+    }
     span.setAllAttributes(attributes);
 
     OperationListener[] operationListeners = context.get(START_OPERATION_LISTENERS);
@@ -254,7 +338,8 @@ public class Instrumenter<REQUEST, RESPONSE> {
       }
     }
 
-    SpanStatusBuilder spanStatusBuilder = new SpanStatusBuilderImpl(span);
+    SpanStatusBuilder spanStatusBuilder =
+        buffers != null ? buffers.spanStatusBuilder(span) : new SpanStatusBuilderImpl(span);
     spanStatusExtractor.extract(spanStatusBuilder, request, response, error);
 
     if (endTime != null) {
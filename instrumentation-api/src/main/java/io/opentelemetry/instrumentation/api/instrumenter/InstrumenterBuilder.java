@@ -49,6 +49,12 @@ public final class InstrumenterBuilder<REQUEST, RESPONSE> {
           ConfigPropertiesUtil.getString(
               "otel.instrumentation.experimental.span-suppression-strategy"));
 
+  private static final boolean reuseOperationBuffersByDefault =
+      ConfigPropertiesUtil.getBoolean(
+          "otel.instrumentation.experimental.instrumenter.reuse-operation-buffers", false);
+
+  private static final int ATTRIBUTES_PER_EXTRACTOR_ESTIMATE = 4;
+
   final OpenTelemetry openTelemetry;
   final String instrumentationName;
   final SpanNameExtractor<? super REQUEST> spanNameExtractor;
@@ -68,6 +74,7 @@ public final class InstrumenterBuilder<REQUEST, RESPONSE> {
   ErrorCauseExtractor errorCauseExtractor = ErrorCauseExtractor.getDefault();
   boolean propagateOperationListenersToOnEnd = false;
   boolean enabled = true;
+  boolean reuseOperationBuffers = reuseOperationBuffersByDefault;
 
   InstrumenterBuilder(
       OpenTelemetry openTelemetry,
@@ -193,6 +200,18 @@ public final class InstrumenterBuilder<REQUEST, RESPONSE> {
     return this;
   }
 
+  /**
+   * Sets whether the {@link Instrumenter} reuses per-thread attribute, span links and span status
+   * builders instead of allocating new ones for every started and ended operation. The builders
+   * never leave the {@code start()}/{@code end()} call that acquired them, so the produced {@link
+   * Context} can still be freely passed between threads.
+   */
+  @CanIgnoreReturnValue
+  InstrumenterBuilder<REQUEST, RESPONSE> setReuseOperationBuffers(boolean reuseOperationBuffers) {
+    this.reuseOperationBuffers = reuseOperationBuffers;
+    return this;
+  }
+
   /**
    * Returns a new {@link Instrumenter} which will create {@linkplain SpanKind#CLIENT client} spans
    * and inject context into requests with the passed {@link TextMapSetter}.
@@ -298,6 +317,12 @@ public final class InstrumenterBuilder<REQUEST, RESPONSE> {
     return tracerBuilder.build();
   }
 
+  int estimateAttributesCount() {
+    // a typical extractor adds a handful of attributes; the Instrumenter adjusts this estimate
+    // to the attribute counts that it actually sees
+    return Math.max(attributesExtractors.size() * ATTRIBUTES_PER_EXTRACTOR_ESTIMATE, 1);
+  }
+
   List<OperationListener> buildOperationListeners() {
     // just copy the listeners list if there are no metrics registered
     if (operationMetrics.isEmpty()) {
@@ -417,6 +442,12 @@ public final class InstrumenterBuilder<REQUEST, RESPONSE> {
               InstrumenterBuilder<RQ, RS> builder) {
             builder.propagateOperationListenersToOnEnd();
           }
+
+          @Override
+          public <RQ, RS> void setReuseOperationBuffers(
+              InstrumenterBuilder<RQ, RS> builder, boolean reuseOperationBuffers) {
+            builder.setReuseOperationBuffers(reuseOperationBuffers);
+          }
         });
   }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.instrumenter;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.TracerProvider;
+import javax.annotation.Nullable;
+
+/**
+ * Per-thread set of the builders that {@link Instrumenter} needs while starting or ending an
+ * operation. Buffers are acquired and released within a single {@code doStart()}/{@code doEnd()}
+ * call on the same thread and are never stored in a {@link io.opentelemetry.context.Context}, so
+ * they stay safe when the resulting context is propagated to other threads.
+ *
+ * <p>Nested operations (e.g. an {@link AttributesExtractor} that itself calls an instrumented
+ * library) find the buffers of the current thread busy; {@link #acquire()} returns {@code null} in
+ * that case and the caller falls back to allocating fresh builders.
+ */
+final class OperationBuffers {
+
+  // used to clear the span builder reference on release, so that the last span is not retained
+  private static final SpanBuilder NOOP_SPAN_BUILDER =
+      TracerProvider.noop().get("noop").spanBuilder("noop");
+
+  private static final ThreadLocal<OperationBuffers> buffers =
+      ThreadLocal.withInitial(OperationBuffers::new);
+
+  private final UnsafeAttributes attributes = new UnsafeAttributes();
+  private final SpanLinksBuilderImpl spanLinksBuilder = new SpanLinksBuilderImpl(NOOP_SPAN_BUILDER);
+  private final SpanStatusBuilderImpl spanStatusBuilder =
+      new SpanStatusBuilderImpl(Span.getInvalid());
+  private boolean inUse;
+
+  @Nullable
+  static OperationBuffers acquire() {
+    OperationBuffers operationBuffers = buffers.get();
+    if (operationBuffers.inUse) {
+      return null;
+    }
+    operationBuffers.inUse = true;
+    return operationBuffers;
+  }
+
+  UnsafeAttributes attributes() {
+    return attributes;
+  }
+
+  SpanLinksBuilder spanLinksBuilder(SpanBuilder spanBuilder) {
+    spanLinksBuilder.setSpanBuilder(spanBuilder);
+    return spanLinksBuilder;
+  }
+
+  SpanStatusBuilder spanStatusBuilder(Span span) {
+    spanStatusBuilder.setSpan(span);
+    return spanStatusBuilder;
+  }
+
+  void release() {
+    attributes.clear();
+    spanLinksBuilder.setSpanBuilder(NOOP_SPAN_BUILDER);
+    spanStatusBuilder.setSpan(Span.getInvalid());
+    inUse = false;
+  }
+
+  private OperationBuffers() {}
+}
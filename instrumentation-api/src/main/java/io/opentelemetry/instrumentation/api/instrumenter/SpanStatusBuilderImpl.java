@@ -10,12 +10,17 @@ import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
 
 final class SpanStatusBuilderImpl implements SpanStatusBuilder {
-  private final Span span;
+  private Span span;
 
   SpanStatusBuilderImpl(Span span) {
     this.span = span;
   }
 
+  // used by OperationBuffers to retarget a reused instance at the next span
+  void setSpan(Span span) {
+    this.span = span;
+  }
+
   @Override
   @CanIgnoreReturnValue
   public SpanStatusBuilder setStatus(StatusCode statusCode, String description) {
@@ -9,9 +9,13 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.common.AttributesBuilder;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
 
 /**
  * The {@link AttributesBuilder} and {@link Attributes} used by the instrumentation API. We are able
@@ -19,23 +23,64 @@ import java.util.function.BiConsumer;
  * multiple Attributes instances. So we use just one storage for both the builder and attributes. A
  * couple of methods still require copying to satisfy the interface contracts, but in practice
  * should never be called by user code even though they can.
+ *
+ * <p>Keys and values are kept in parallel arrays that are pre-sized by the {@link Instrumenter} to
+ * the number of attributes it expects, so that filling them never needs to rehash and handing them
+ * to the span with {@link #forEach(BiConsumer)} doesn't allocate. Instrumenters produce a couple
+ * dozen attributes at most, so the linear key lookup is cheaper than hashing.
  */
-final class UnsafeAttributes extends HashMap<AttributeKey<?>, Object>
-    implements Attributes, AttributesBuilder {
+final class UnsafeAttributes implements Attributes, AttributesBuilder {
 
-  private static final long serialVersionUID = 1L;
+  private static final int DEFAULT_CAPACITY = 8;
+
+  private AttributeKey<?>[] keys;
+  private Object[] values;
+  private int size;
+
+  UnsafeAttributes() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  UnsafeAttributes(int expectedSize) {
+    int capacity = Math.max(expectedSize, 1);
+    keys = new AttributeKey<?>[capacity];
+    values = new Object[capacity];
+  }
 
   // Attributes
 
+  @Nullable
   @SuppressWarnings("unchecked")
   @Override
   public <T> T get(AttributeKey<T> key) {
-    return (T) super.get(key);
+    int index = indexOf(key);
+    return index < 0 ? null : (T) values[index];
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super AttributeKey<?>, ? super Object> action) {
+    for (int i = 0; i < size; i++) {
+      action.accept(keys[i], values[i]);
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
   }
 
+  // This can be called by user code in a RequestListener so copy. In practice, it should not be
+  // called as there is no real use case.
   @Override
   public Map<AttributeKey<?>, Object> asMap() {
-    return this;
+    Map<AttributeKey<?>, Object> map = new LinkedHashMap<>();
+    forEach(map::put);
+    return Collections.unmodifiableMap(map);
   }
 
   // This can be called by user code in a RequestListener so copy. In practice, it should not be
@@ -63,22 +108,121 @@ final class UnsafeAttributes extends HashMap<AttributeKey<?>, Object>
   @Override
   @CanIgnoreReturnValue
   public <T> AttributesBuilder put(AttributeKey<T> key, T value) {
-    super.put(key, value);
+    putInternal(key, value);
     return this;
   }
 
   @Override
   @CanIgnoreReturnValue
   public AttributesBuilder putAll(Attributes attributes) {
-    attributes.forEach(this::put);
+    attributes.forEach(this::putInternal);
     return this;
   }
 
   @Override
-  public void forEach(BiConsumer<? super AttributeKey<?>, ? super Object> action) {
-    // https://github.com/open-telemetry/opentelemetry-java/issues/4161
-    // Help out android desugaring by having an explicit call to HashMap.forEach, when forEach is
-    // just called through Attributes.forEach desugaring is unable to correctly handle it.
-    super.forEach(action);
+  @CanIgnoreReturnValue
+  public <T> AttributesBuilder remove(AttributeKey<T> key) {
+    return removeIf(key::equals);
+  }
+
+  @Override
+  @CanIgnoreReturnValue
+  public AttributesBuilder removeIf(Predicate<AttributeKey<?>> filter) {
+    int newSize = 0;
+    for (int i = 0; i < size; i++) {
+      if (!filter.test(keys[i])) {
+        keys[newSize] = keys[i];
+        values[newSize] = values[i];
+        newSize++;
+      }
+    }
+    Arrays.fill(keys, newSize, size, null);
+    Arrays.fill(values, newSize, size, null);
+    size = newSize;
+    return this;
+  }
+
+  void clear() {
+    Arrays.fill(keys, 0, size, null);
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  private void putInternal(@Nullable AttributeKey<?> key, @Nullable Object value) {
+    if (key == null || value == null) {
+      return;
+    }
+    int index = indexOf(key);
+    if (index >= 0) {
+      values[index] = value;
+      return;
+    }
+    if (size == keys.length) {
+      int newCapacity = size * 2;
+      keys = Arrays.copyOf(keys, newCapacity);
+      values = Arrays.copyOf(values, newCapacity);
+    }
+    keys[size] = key;
+    values[size] = value;
+    size++;
+  }
+
+  private int indexOf(AttributeKey<?> key) {
+    // attribute keys are almost always constants, so check the identity first
+    for (int i = 0; i < size; i++) {
+      if (keys[i] == key) {
+        return i;
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      if (keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // attributes are used as keys, e.g. of the active requests in the http server metrics, so they
+  // are compared by their content regardless of the insertion order, like a HashMap
+  @Override
+  public boolean equals(@Nullable Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof UnsafeAttributes)) {
+      return false;
+    }
+    UnsafeAttributes other = (UnsafeAttributes) obj;
+    if (other.size != size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      int index = other.indexOf(keys[i]);
+      if (index < 0 || !values[i].equals(other.values[index])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (int i = 0; i < size; i++) {
+      hashCode += keys[i].hashCode() ^ values[i].hashCode();
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(keys[i]).append('=').append(values[i]);
+    }
+    return sb.append('}').toString();
   }
 }
@@ -0,0 +1,306 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableDoubleMeasurement;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Samples the time spent in {@code Instrumenter.start()} and {@code Instrumenter.end()} by each
+ * instrumentation, to find the instrumentations that are responsible for most of the agent
+ * overhead. One out of every {@code sampling-interval} operations is timed, the samples are
+ * aggregated in lock-free histograms that are reported as metrics and periodically logged as a
+ * summary.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
+ */
+public final class InstrumentationProfiler {
+  private static final Logger logger = Logger.getLogger(InstrumentationProfiler.class.getName());
+
+  private static final String INSTRUMENTATION_NAME = "io.opentelemetry.instrumentation-api";
+  private static final AttributeKey<String> INSTRUMENTATION_NAME_KEY =
+      AttributeKey.stringKey("instrumentation.name");
+  private static final AttributeKey<String> PHASE = AttributeKey.stringKey("phase");
+
+  private static final Profile DISABLED = new Profile(0);
+
+  private static final InstrumentationProfiler INSTANCE =
+      new InstrumentationProfiler(
+              ConfigPropertiesUtil.getBoolean(
+                  "otel.javaagent.experimental.instrumentation-profiler.enabled", false),
+              ConfigPropertiesUtil.getInt(
+                  "otel.javaagent.experimental.instrumentation-profiler.sampling-interval", 100),
+              logger::info)
+          .start(
+              ConfigPropertiesUtil.getInt(
+                  "otel.javaagent.experimental.instrumentation-profiler.report-interval", 60));
+
+  private final boolean enabled;
+  private final int samplingInterval;
+  private final Consumer<String> reporter;
+  private final ConcurrentMap<String, Profile> profiles = new ConcurrentHashMap<>();
+
+  public static InstrumentationProfiler instance() {
+    return INSTANCE;
+  }
+
+  // visible for testing
+  InstrumentationProfiler(boolean enabled, int samplingInterval, Consumer<String> reporter) {
+    this.enabled = enabled && samplingInterval > 0;
+    this.samplingInterval = samplingInterval;
+    this.reporter = reporter;
+  }
+
+  /**
+   * Returns the profile of the given instrumentation. The profile is meant to be looked up once,
+   * when the instrumenter is created; when the profiler is disabled the returned profile never
+   * samples.
+   */
+  public Profile profile(String instrumentationName) {
+    if (!enabled) {
+      return DISABLED;
+    }
+    return profiles.computeIfAbsent(instrumentationName, k -> new Profile(samplingInterval));
+  }
+
+  /** Registers observers for the sampled durations and returns them so that they can be closed. */
+  public List<AutoCloseable> registerObservers(OpenTelemetry openTelemetry) {
+    if (!enabled) {
+      return Collections.emptyList();
+    }
+    Meter meter = openTelemetry.getMeterProvider().get(INSTRUMENTATION_NAME);
+    ObservableDoubleMeasurement duration =
+        meter
+            .counterBuilder("otel.instrumentation.profiler.duration")
+            .ofDoubles()
+            .setUnit("s")
+            .setDescription(
+                "The estimated time spent in instrumenter start and end by the instrumentation.")
+            .buildObserver();
+    ObservableLongMeasurement samples =
+        meter
+            .counterBuilder("otel.instrumentation.profiler.samples")
+            .setUnit("{sample}")
+            .setDescription("The number of instrumenter start and end calls that were timed.")
+            .buildObserver();
+    return Collections.singletonList(
+        meter.batchCallback(
+            () ->
+                profiles.forEach(
+                    (instrumentationName, profile) -> {
+                      record(duration, samples, instrumentationName, "start", profile.start);
+                      record(duration, samples, instrumentationName, "end", profile.end);
+                    }),
+            duration,
+            samples));
+  }
+
+  private void record(
+      ObservableDoubleMeasurement duration,
+      ObservableLongMeasurement samples,
+      String instrumentationName,
+      String phase,
+      LatencyHistogram histogram) {
+    Attributes attributes =
+        Attributes.of(INSTRUMENTATION_NAME_KEY, instrumentationName, PHASE, phase);
+    duration.record(histogram.getSumNanos() * samplingInterval / 1_000_000_000.0, attributes);
+    samples.record(histogram.getCount(), attributes);
+  }
+
+  // visible for testing
+  void report() {
+    List<Summary> summaries = new ArrayList<>();
+    profiles.forEach(
+        (instrumentationName, profile) -> {
+          summaries.add(new Summary(instrumentationName, "start", profile.start));
+          summaries.add(new Summary(instrumentationName, "end", profile.end));
+        });
+    summaries.sort(Comparator.comparingLong((Summary summary) -> summary.sumNanos).reversed());
+    for (Summary summary : summaries) {
+      if (summary.count == 0) {
+        continue;
+      }
+      reporter.accept(
+          String.format(
+              Locale.ROOT,
+              "Instrumentation '%s' (%s) : %d samples, p50 %.1f us, p99 %.1f us,"
+                  + " estimated total %.3f s",
+              summary.instrumentationName,
+              summary.phase,
+              summary.count,
+              summary.p50Nanos / 1_000.0,
+              summary.p99Nanos / 1_000.0,
+              summary.sumNanos * (double) samplingInterval / 1_000_000_000.0));
+    }
+  }
+
+  // this private method is designed for assignment of the return value
+  @SuppressWarnings("OtelCanIgnoreReturnValueSuggester")
+  private InstrumentationProfiler start(int reportIntervalSeconds) {
+    if (enabled && reportIntervalSeconds > 0) {
+      ScheduledExecutorService executor =
+          Executors.newScheduledThreadPool(
+              1,
+              runnable ->
+                  doPrivileged(
+                      () -> {
+                        Thread result = new Thread(runnable, "instrumentation_profiler_reporter");
+                        result.setDaemon(true);
+                        result.setContextClassLoader(null);
+                        return result;
+                      }));
+      executor.scheduleAtFixedRate(
+          this::report, reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+      // see SupportabilityMetrics.start(), keeps the executor reachable until the task is scheduled
+      if (executor.isTerminated()) {
+        throw new AssertionError();
+      }
+    }
+    return this;
+  }
+
+  private static <T> T doPrivileged(PrivilegedAction<T> action) {
+    if (System.getSecurityManager() == null) {
+      return action.run();
+    }
+    return java.security.AccessController.doPrivileged(action);
+  }
+
+  /**
+   * The sampled durations of the instrumenter start and end calls of an instrumentation.
+   *
+   * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+   * at any time.
+   */
+  public static final class Profile {
+    private final int samplingInterval;
+    private final LatencyHistogram start = new LatencyHistogram();
+    private final LatencyHistogram end = new LatencyHistogram();
+
+    private Profile(int samplingInterval) {
+      this.samplingInterval = samplingInterval;
+    }
+
+    /** Returns whether the current call should be timed. */
+    public boolean sample() {
+      return samplingInterval > 0
+          && (samplingInterval == 1 || ThreadLocalRandom.current().nextInt(samplingInterval) == 0);
+    }
+
+    public void recordStart(long nanos) {
+      start.record(nanos);
+    }
+
+    public void recordEnd(long nanos) {
+      end.record(nanos);
+    }
+
+    // visible for testing
+    LatencyHistogram getStart() {
+      return start;
+    }
+
+    // visible for testing
+    LatencyHistogram getEnd() {
+      return end;
+    }
+  }
+
+  /**
+   * A histogram with power of two buckets, the bucket {@code i} counts the durations in {@code
+   * [2^(i-1), 2^i)} nanoseconds. Recording only increments {@link LongAdder}s.
+   */
+  // visible for testing
+  static final class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sumNanos = new LongAdder();
+
+    LatencyHistogram() {
+      for (int i = 0; i < BUCKETS; i++) {
+        buckets[i] = new LongAdder();
+      }
+    }
+
+    void record(long nanos) {
+      if (nanos < 0) {
+        nanos = 0;
+      }
+      buckets[Math.min(BUCKETS - Long.numberOfLeadingZeros(nanos), BUCKETS - 1)].increment();
+      sumNanos.add(nanos);
+    }
+
+    long getCount() {
+      long count = 0;
+      for (LongAdder bucket : buckets) {
+        count += bucket.sum();
+      }
+      return count;
+    }
+
+    long getSumNanos() {
+      return sumNanos.sum();
+    }
+
+    /** Returns the upper bound of the bucket that contains the given quantile. */
+    long getQuantileNanos(double quantile) {
+      long[] counts = new long[BUCKETS];
+      long count = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[i] = buckets[i].sum();
+        count += counts[i];
+      }
+      long rank = (long) Math.ceil(quantile * count);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += counts[i];
+        if (seen >= rank && counts[i] > 0) {
+          return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+        }
+      }
+      return 0;
+    }
+  }
+
+  private static final class Summary {
+    final String instrumentationName;
+    final String phase;
+    final long count;
+    final long sumNanos;
+    final long p50Nanos;
+    final long p99Nanos;
+
+    Summary(String instrumentationName, String phase, LatencyHistogram histogram) {
+      this.instrumentationName = instrumentationName;
+      this.phase = phase;
+      this.count = histogram.getCount();
+      this.sumNanos = histogram.getSumNanos();
+      this.p50Nanos = histogram.getQuantileNanos(0.5);
+      this.p99Nanos = histogram.getQuantileNanos(0.99);
+    }
+  }
+}
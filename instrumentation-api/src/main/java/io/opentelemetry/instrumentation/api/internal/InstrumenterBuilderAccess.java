@@ -29,4 +29,7 @@ public interface InstrumenterBuilderAccess {
 
   <REQUEST, RESPONSE> void propagateOperationListenersToOnEnd(
       InstrumenterBuilder<REQUEST, RESPONSE> builder);
+
+  <REQUEST, RESPONSE> void setReuseOperationBuffers(
+      InstrumenterBuilder<REQUEST, RESPONSE> builder, boolean reuseOperationBuffers);
 }
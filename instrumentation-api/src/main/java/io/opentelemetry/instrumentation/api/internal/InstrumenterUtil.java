@@ -73,5 +73,11 @@ public final class InstrumenterUtil {
     instrumenterBuilderAccess.propagateOperationListenersToOnEnd(builder);
   }
 
+  public static <REQUEST, RESPONSE> void setReuseOperationBuffers(
+      InstrumenterBuilder<REQUEST, RESPONSE> builder, boolean reuseOperationBuffers) {
+    // instrumenterBuilderAccess is guaranteed to be non-null here
+    instrumenterBuilderAccess.setReuseOperationBuffers(builder, reuseOperationBuffers);
+  }
+
   private InstrumenterUtil() {}
 }
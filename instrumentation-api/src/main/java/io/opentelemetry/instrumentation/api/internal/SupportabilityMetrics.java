@@ -5,14 +5,22 @@
 
 package io.opentelemetry.instrumentation.api.internal;
 
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
 import io.opentelemetry.api.trace.SpanKind;
 import java.security.PrivilegedAction;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
 
@@ -22,11 +30,18 @@ import java.util.logging.Logger;
  */
 public final class SupportabilityMetrics {
   private static final Logger logger = Logger.getLogger(SupportabilityMetrics.class.getName());
+
+  private static final String INSTRUMENTATION_NAME = "io.opentelemetry.instrumentation-api";
+  private static final AttributeKey<String> INSTRUMENTATION_NAME_KEY =
+      AttributeKey.stringKey("instrumentation.name");
+  private static final AttributeKey<String> EVENT = AttributeKey.stringKey("event");
+
   private final boolean agentDebugEnabled;
   private final Consumer<String> reporter;
 
   private final ConcurrentMap<String, KindCounters> suppressionCounters = new ConcurrentHashMap<>();
   private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, SpanCounters> spanCounters = new ConcurrentHashMap<>();
 
   private static final SupportabilityMetrics INSTANCE =
       new SupportabilityMetrics(
@@ -61,6 +76,41 @@ public final class SupportabilityMetrics {
     counters.computeIfAbsent(counterName, k -> new AtomicLong()).incrementAndGet();
   }
 
+  /**
+   * Returns the counters of the spans started and ended by the given instrumentation. The counters
+   * are meant to be looked up once, when the instrumenter is created. They are always counted, they
+   * are only reported when the agent self metrics are enabled.
+   */
+  public SpanCounters spanCounters(String instrumentationName) {
+    return spanCounters.computeIfAbsent(instrumentationName, k -> new SpanCounters());
+  }
+
+  /** Registers observers for the span counts and returns them so that they can be closed. */
+  public List<AutoCloseable> registerObservers(OpenTelemetry openTelemetry) {
+    Meter meter = openTelemetry.getMeterProvider().get(INSTRUMENTATION_NAME);
+    ObservableLongMeasurement spans =
+        meter
+            .counterBuilder("otel.instrumentation.spans")
+            .setUnit("{span}")
+            .setDescription("The number of spans started and ended by the instrumentation.")
+            .buildObserver();
+    return Collections.singletonList(
+        meter.batchCallback(
+            () ->
+                spanCounters.forEach(
+                    (instrumentationName, counters) -> {
+                      spans.record(
+                          counters.started.sum(),
+                          Attributes.of(
+                              INSTRUMENTATION_NAME_KEY, instrumentationName, EVENT, "started"));
+                      spans.record(
+                          counters.ended.sum(),
+                          Attributes.of(
+                              INSTRUMENTATION_NAME_KEY, instrumentationName, EVENT, "ended"));
+                    }),
+            spans));
+  }
+
   // visible for testing
   void report() {
     suppressionCounters.forEach(
@@ -128,6 +178,35 @@ public final class SupportabilityMetrics {
     private CounterNames() {}
   }
 
+  /**
+   * The number of spans started and ended by an instrumentation.
+   *
+   * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+   * at any time.
+   */
+  public static final class SpanCounters {
+    private final LongAdder started = new LongAdder();
+    private final LongAdder ended = new LongAdder();
+
+    private SpanCounters() {}
+
+    public void recordStart() {
+      started.increment();
+    }
+
+    public void recordEnd() {
+      ended.increment();
+    }
+
+    public long getStartedCount() {
+      return started.sum();
+    }
+
+    public long getEndedCount() {
+      return ended.sum();
+    }
+  }
+
   // this class is threadsafe.
   private static class KindCounters {
     private final AtomicLong server = new AtomicLong();
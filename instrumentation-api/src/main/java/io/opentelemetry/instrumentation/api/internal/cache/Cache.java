@@ -7,6 +7,7 @@ package io.opentelemetry.instrumentation.api.internal.cache;
 
 import io.opentelemetry.instrumentation.api.internal.cache.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
 import javax.annotation.Nullable;
 
 /**
@@ -24,18 +25,80 @@ public interface Cache<K, V> {
    * Object#equals(Object)}.
    */
   static <K, V> Cache<K, V> weak() {
-    return new WeakLockFreeCache<>();
+    return new WeakLockFreeCache<>(CacheStats.WEAK);
+  }
+
+  /**
+   * Returns new unbounded cache that is optimized for frequent lookups and updates from many
+   * threads, e.g. for storing the values of virtual fields that can't be stored in an injected
+   * field. Lookups don't allocate and stale entries are removed without a background thread.
+   *
+   * <p>Keys are referenced weakly and compared using identity comparison, not {@link
+   * Object#equals(Object)}. The mapping function of {@link #computeIfAbsent(Object, Function)} may
+   * be called more than once for the same key when the key is looked up concurrently.
+   */
+  static <K, V> Cache<K, V> weakStriped() {
+    return new StripedWeakCache<>(CacheStats.WEAK);
   }
 
   /**
    * Returns new bounded cache.
    *
    * <p>Both keys and values are strongly referenced.
+   *
+   * <p>The cache uses an LRU eviction policy, unless the {@code
+   * otel.instrumentation.experimental.cache.bounded-policy} property is set to {@code tinylfu}, in
+   * which case it is the same as {@link #boundedTinyLfu(int)}.
    */
   static <K, V> Cache<K, V> bounded(int capacity) {
-    ConcurrentLinkedHashMap<K, V> map =
-        new ConcurrentLinkedHashMap.Builder<K, V>().maximumWeightedCapacity(capacity).build();
-    return new MapBackedCache<>(map);
+    if (CachePolicies.useTinyLfuForBounded()) {
+      return boundedTinyLfu(capacity);
+    }
+    return bounded(capacity, CacheStats.BOUNDED);
+  }
+
+  /**
+   * Returns new bounded cache with the same eviction policy as {@link #bounded(int)}. Lookups and
+   * evictions are recorded in the given {@link CacheStats}.
+   *
+   * <p>Both keys and values are strongly referenced.
+   */
+  static <K, V> Cache<K, V> bounded(int capacity, @Nullable CacheStats stats) {
+    if (CachePolicies.useTinyLfuForBounded()) {
+      return new TinyLfuCache<>(capacity, (key, value) -> 1, stats);
+    }
+    ConcurrentLinkedHashMap.Builder<K, V> builder =
+        new ConcurrentLinkedHashMap.Builder<K, V>().maximumWeightedCapacity(capacity);
+    if (stats != null) {
+      builder.listener((key, value) -> stats.recordEviction());
+    }
+    return new MapBackedCache<>(builder.build(), stats);
+  }
+
+  /**
+   * Returns new bounded cache that uses a frequency-aware W-TinyLFU eviction policy. Compared to
+   * {@link #bounded(int)} it keeps frequently used entries when many keys are used only once, and
+   * it scales better when read concurrently from many threads.
+   *
+   * <p>Both keys and values are strongly referenced.
+   */
+  static <K, V> Cache<K, V> boundedTinyLfu(int capacity) {
+    return new TinyLfuCache<>(capacity);
+  }
+
+  /**
+   * Returns new bounded cache that uses the same eviction policy as {@link #boundedTinyLfu(int)},
+   * but bounds the total weight of the entries instead of their number. Lookups and evictions are
+   * recorded in the given {@link CacheStats}.
+   *
+   * <p>Both keys and values are strongly referenced.
+   *
+   * @param maximumWeight the maximum total weight of the cached entries
+   * @param weigher computes the weight of an entry, which must be at least 1
+   */
+  static <K, V> Cache<K, V> boundedTinyLfu(
+      long maximumWeight, ToIntBiFunction<? super K, ? super V> weigher, CacheStats stats) {
+    return new TinyLfuCache<>(maximumWeight, weigher, stats);
   }
 
   /**
@@ -0,0 +1,61 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal.cache;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the {@link CacheStats} of all caches created with stats as metrics.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
+ */
+public final class CacheMetrics {
+
+  private static final String INSTRUMENTATION_NAME = "io.opentelemetry.instrumentation-api";
+
+  private static final AttributeKey<String> CACHE_NAME = AttributeKey.stringKey("cache.name");
+  private static final AttributeKey<String> RESULT = AttributeKey.stringKey("result");
+
+  /** Registers observers for the cache metrics and returns them so that they can be closed. */
+  public static List<AutoCloseable> registerObservers(OpenTelemetry openTelemetry) {
+    Meter meter = openTelemetry.getMeterProvider().get(INSTRUMENTATION_NAME);
+    ObservableLongMeasurement requests =
+        meter
+            .counterBuilder("otel.instrumentation.cache.requests")
+            .setUnit("{request}")
+            .setDescription("The number of cache lookups, by result.")
+            .buildObserver();
+    ObservableLongMeasurement evictions =
+        meter
+            .counterBuilder("otel.instrumentation.cache.evictions")
+            .setUnit("{entry}")
+            .setDescription("The number of entries evicted because the cache was full.")
+            .buildObserver();
+    return Collections.singletonList(
+        meter.batchCallback(
+            () -> {
+              for (CacheStats stats : CacheStats.registered()) {
+                String cacheName = stats.getCacheName();
+                requests.record(
+                    stats.getHitCount(), Attributes.of(CACHE_NAME, cacheName, RESULT, "hit"));
+                requests.record(
+                    stats.getMissCount(), Attributes.of(CACHE_NAME, cacheName, RESULT, "miss"));
+                evictions.record(stats.getEvictionCount(), Attributes.of(CACHE_NAME, cacheName));
+              }
+            },
+            requests,
+            evictions));
+  }
+
+  private CacheMetrics() {}
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal.cache;
+
+import io.opentelemetry.instrumentation.api.internal.ConfigPropertiesUtil;
+
+final class CachePolicies {
+
+  private static final boolean tinyLfuForBounded =
+      "tinylfu"
+          .equalsIgnoreCase(
+              ConfigPropertiesUtil.getString(
+                  "otel.instrumentation.experimental.cache.bounded-policy", "lru"));
+
+  static boolean useTinyLfuForBounded() {
+    return tinyLfuForBounded;
+  }
+
+  private CachePolicies() {}
+}
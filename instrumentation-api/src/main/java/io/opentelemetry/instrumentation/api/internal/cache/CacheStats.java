@@ -0,0 +1,86 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal.cache;
+
+import io.opentelemetry.instrumentation.api.internal.ConfigPropertiesUtil;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+
+/**
+ * Hit, miss and eviction counts of a named {@link Cache}. Every instance is registered so that the
+ * counts can be reported by {@link CacheMetrics}.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
+ */
+public final class CacheStats {
+
+  private static final List<CacheStats> registered = new CopyOnWriteArrayList<>();
+
+  // caches that are created without stats (e.g. Cache.weak() and Cache.bounded()) are only tracked
+  // when the agent self metrics are enabled, their counts are aggregated by the kind of the cache
+  private static final boolean UNNAMED_CACHE_STATS_ENABLED =
+      ConfigPropertiesUtil.getBoolean("otel.javaagent.experimental.self-metrics.enabled", false);
+
+  @Nullable static final CacheStats WEAK = UNNAMED_CACHE_STATS_ENABLED ? create("weak") : null;
+
+  @Nullable
+  static final CacheStats BOUNDED = UNNAMED_CACHE_STATS_ENABLED ? create("bounded") : null;
+
+  /** Returns new stats for a cache with the given name. */
+  public static CacheStats create(String cacheName) {
+    CacheStats stats = new CacheStats(cacheName);
+    registered.add(stats);
+    return stats;
+  }
+
+  static List<CacheStats> registered() {
+    return Collections.unmodifiableList(registered);
+  }
+
+  private final String cacheName;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private CacheStats(String cacheName) {
+    this.cacheName = cacheName;
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  /** Returns the number of lookups that found a cached value. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Returns the number of lookups that did not find a cached value. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Returns the number of entries that were evicted because the cache was full. */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  void recordHit() {
+    hits.increment();
+  }
+
+  void recordMiss() {
+    misses.increment();
+  }
+
+  void recordEviction() {
+    evictions.increment();
+  }
+}
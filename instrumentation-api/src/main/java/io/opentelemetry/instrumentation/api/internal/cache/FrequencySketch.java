@@ -0,0 +1,143 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal.cache;
+
+/**
+ * A probabilistic multiset for estimating the popularity of an element within a time window, used
+ * by {@link TinyLfuCache} to decide whether a new entry is worth admitting in place of an existing
+ * one. This is a count-min sketch with 4-bit counters, 16 of which are packed in a {@code long}.
+ * When the number of recorded increments reaches the sample size all counters are halved, so that
+ * the sketch keeps adapting to changes in the access pattern. The table grows with the number of
+ * entries of the cache, like in Caffeine.
+ *
+ * <p>The design follows the frequency sketch of <a
+ * href="https://github.com/ben-manes/caffeine">Caffeine</a>, see the <a
+ * href="https://arxiv.org/abs/1512.00727">TinyLFU paper</a> for details.
+ *
+ * <p>This class is not thread-safe, callers must guard access with a lock.
+ */
+final class FrequencySketch {
+
+  private static final long[] SEED = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+  private static final int MAX_TABLE_SIZE = 1 << 30;
+  private static final int INITIAL_TABLE_SIZE = 16;
+
+  private final int maximumTableSize;
+  private long[] table;
+  private int tableMask;
+  private int sampleSize;
+  private int size;
+
+  /**
+   * Creates a sketch for up to the given number of entries. The sketch starts small and grows with
+   * {@link #ensureCapacity(long)}, so that a cache whose maximum is large, or is expressed in
+   * weight units rather than entries, doesn't allocate a large table up front.
+   */
+  FrequencySketch(long maximumSize) {
+    maximumTableSize =
+        ceilingPowerOfTwo((int) Math.min(Math.max(maximumSize, 1), MAX_TABLE_SIZE));
+    table = new long[Math.min(INITIAL_TABLE_SIZE, maximumTableSize)];
+    tableMask = table.length - 1;
+    sampleSize = 10 * table.length;
+  }
+
+  /**
+   * Grows the sketch so that it can estimate the frequencies of the given number of entries
+   * accurately, up to the maximum size it was created for.
+   */
+  void ensureCapacity(long expectedSize) {
+    if (expectedSize <= table.length || table.length == maximumTableSize) {
+      return;
+    }
+    int tableSize =
+        Math.min(
+            ceilingPowerOfTwo((int) Math.min(expectedSize, MAX_TABLE_SIZE)), maximumTableSize);
+    // the table size is a power of two, so an element's index in the larger table is its index in
+    // the smaller one plus a multiple of the smaller size; copying the table into every part of
+    // the larger one keeps the recorded frequencies
+    long[] newTable = new long[tableSize];
+    for (int i = 0; i < tableSize; i += table.length) {
+      System.arraycopy(table, 0, newTable, i, table.length);
+    }
+    table = newTable;
+    tableMask = tableSize - 1;
+    sampleSize = tableSize > Integer.MAX_VALUE / 10 ? Integer.MAX_VALUE : 10 * tableSize;
+  }
+
+  // Visible for testing
+  int capacity() {
+    return table.length;
+  }
+
+  /** Returns the estimated number of occurrences of an element, up to the maximum of 15. */
+  int frequency(Object element) {
+    int hash = spread(element.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /**
+   * Increments the popularity of the element if it does not exceed the maximum of 15. The
+   * popularity of all elements is periodically halved when the sample size is reached.
+   */
+  void increment(Object element) {
+    int hash = spread(element.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  private void reset() {
+    int oddCount = 0;
+    for (int i = 0; i < table.length; i++) {
+      oddCount += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size >>> 1) - (oddCount >>> 2);
+  }
+
+  private int indexOf(int item, int i) {
+    long hash = (item + SEED[i]) * SEED[i];
+    hash += hash >>> 32;
+    return ((int) hash) & tableMask;
+  }
+
+  // applies a supplemental hash function to defend against poor quality hash codes
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+
+  private static int ceilingPowerOfTwo(int x) {
+    return x <= 1 ? 1 : 1 << (Integer.SIZE - Integer.numberOfLeadingZeros(x - 1));
+  }
+}
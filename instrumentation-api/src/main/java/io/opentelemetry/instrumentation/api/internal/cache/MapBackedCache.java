@@ -12,20 +12,39 @@ import javax.annotation.Nullable;
 final class MapBackedCache<K, V> implements Cache<K, V> {
 
   private final ConcurrentMap<K, V> delegate;
+  @Nullable private final CacheStats stats;
 
-  MapBackedCache(ConcurrentMap<K, V> delegate) {
+  MapBackedCache(ConcurrentMap<K, V> delegate, @Nullable CacheStats stats) {
     this.delegate = delegate;
+    this.stats = stats;
   }
 
   @Override
   public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    if (stats == null) {
+      return delegate.computeIfAbsent(key, mappingFunction);
+    }
+    V value = delegate.get(key);
+    if (value != null) {
+      stats.recordHit();
+      return value;
+    }
+    stats.recordMiss();
     return delegate.computeIfAbsent(key, mappingFunction);
   }
 
   @Nullable
   @Override
   public V get(K key) {
-    return delegate.get(key);
+    V value = delegate.get(key);
+    if (stats != null) {
+      if (value != null) {
+        stats.recordHit();
+      } else {
+        stats.recordMiss();
+      }
+    }
+    return value;
   }
 
   @Override
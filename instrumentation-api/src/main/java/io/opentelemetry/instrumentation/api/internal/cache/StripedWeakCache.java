@@ -0,0 +1,280 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal.cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * A weak identity cache that is split into segments that are locked independently, in the style of
+ * the pre Java 8 {@code ConcurrentHashMap}.
+ *
+ * <p>Lookups don't lock and don't allocate: the table entries are themselves the weak references to
+ * the keys, so there is no wrapper key to create for a lookup, and there is a single allocation per
+ * inserted entry. Every segment has its own reference queue, entries whose key was garbage
+ * collected are removed by the thread that next uses the segment, which only needs to lock the
+ * segment when there is something to remove. This doesn't need a cleaner thread.
+ *
+ * <p>Unlike the other caches, {@link #computeIfAbsent(Object, Function)} calls the mapping function
+ * without holding a lock, so it may be called more than once for the same key when the key is
+ * looked up concurrently; only one of the computed values is stored and returned to all callers.
+ */
+final class StripedWeakCache<K, V> implements Cache<K, V> {
+
+  private static final int SEGMENT_COUNT = 16;
+  private static final int SEGMENT_SHIFT = 32 - Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+  private static final int INITIAL_SEGMENT_CAPACITY = 4;
+
+  private final Segment<K, V>[] segments;
+  @Nullable private final CacheStats stats;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  StripedWeakCache(@Nullable CacheStats stats) {
+    this.segments = new Segment[SEGMENT_COUNT];
+    for (int i = 0; i < SEGMENT_COUNT; i++) {
+      segments[i] = new Segment<>();
+    }
+    this.stats = stats;
+  }
+
+  @Override
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    int hash = hash(key);
+    Segment<K, V> segment = segmentFor(hash);
+    V value = segment.get(key, hash);
+    if (value != null) {
+      if (stats != null) {
+        stats.recordHit();
+      }
+      return value;
+    }
+    if (stats != null) {
+      stats.recordMiss();
+    }
+    value = mappingFunction.apply(key);
+    if (value == null) {
+      return null;
+    }
+    V previous = segment.put(key, hash, value, /* onlyIfAbsent= */ true);
+    return previous != null ? previous : value;
+  }
+
+  @Nullable
+  @Override
+  public V get(K key) {
+    int hash = hash(key);
+    V value = segmentFor(hash).get(key, hash);
+    if (stats != null) {
+      if (value != null) {
+        stats.recordHit();
+      } else {
+        stats.recordMiss();
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public void put(K key, V value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    int hash = hash(key);
+    segmentFor(hash).put(key, hash, value, /* onlyIfAbsent= */ false);
+  }
+
+  @Override
+  public void remove(K key) {
+    int hash = hash(key);
+    segmentFor(hash).remove(key, hash);
+  }
+
+  // Visible for testing
+  int size() {
+    int size = 0;
+    for (Segment<K, V> segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  private Segment<K, V> segmentFor(int hash) {
+    return segments[hash >>> SEGMENT_SHIFT];
+  }
+
+  private static int hash(Object key) {
+    int hash = System.identityHashCode(key);
+    // spread the bits, the segment is selected by the high bits and the bucket by the low bits
+    return hash ^ (hash >>> 16) ^ (hash << 16);
+  }
+
+  private static final class Segment<K, V> {
+
+    private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+    // the entries are never modified after they are added to the table, except for their value;
+    // removing an entry copies the entries before it in the bucket, so that concurrent lookups that
+    // are traversing the bucket are not affected
+    private volatile AtomicReferenceArray<Entry<K, V>> table =
+        new AtomicReferenceArray<>(INITIAL_SEGMENT_CAPACITY);
+    // guarded by this
+    private int count;
+
+    @Nullable
+    V get(K key, int hash) {
+      expungeStaleEntriesIfNeeded();
+      AtomicReferenceArray<Entry<K, V>> table = this.table;
+      for (Entry<K, V> entry = table.get(hash & (table.length() - 1));
+          entry != null;
+          entry = entry.next) {
+        if (entry.hash == hash && entry.get() == key) {
+          return entry.value;
+        }
+      }
+      return null;
+    }
+
+    @Nullable
+    synchronized V put(K key, int hash, V value, boolean onlyIfAbsent) {
+      expungeStaleEntries();
+      AtomicReferenceArray<Entry<K, V>> table = this.table;
+      int index = hash & (table.length() - 1);
+      Entry<K, V> first = table.get(index);
+      for (Entry<K, V> entry = first; entry != null; entry = entry.next) {
+        if (entry.hash == hash && entry.get() == key) {
+          V previous = entry.value;
+          if (!onlyIfAbsent || previous == null) {
+            entry.value = value;
+          }
+          return previous;
+        }
+      }
+      // load factor of 0.75
+      if (count >= table.length() - (table.length() >>> 2)) {
+        table = resize(table);
+        index = hash & (table.length() - 1);
+        first = table.get(index);
+      }
+      table.set(index, new Entry<>(key, hash, value, first, queue));
+      count++;
+      return null;
+    }
+
+    synchronized void remove(K key, int hash) {
+      expungeStaleEntries();
+      AtomicReferenceArray<Entry<K, V>> table = this.table;
+      int index = hash & (table.length() - 1);
+      Entry<K, V> first = table.get(index);
+      for (Entry<K, V> entry = first; entry != null; entry = entry.next) {
+        if (entry.hash == hash && entry.get() == key) {
+          removeEntry(table, index, first, entry);
+          return;
+        }
+      }
+    }
+
+    synchronized int size() {
+      expungeStaleEntries();
+      return count;
+    }
+
+    private void expungeStaleEntriesIfNeeded() {
+      // polling an empty queue doesn't lock
+      Reference<? extends K> stale = queue.poll();
+      if (stale != null) {
+        synchronized (this) {
+          removeStaleEntry(stale);
+          expungeStaleEntries();
+        }
+      }
+    }
+
+    // guarded by this
+    private void expungeStaleEntries() {
+      Reference<? extends K> stale;
+      while ((stale = queue.poll()) != null) {
+        removeStaleEntry(stale);
+      }
+    }
+
+    // guarded by this
+    private void removeStaleEntry(Reference<? extends K> stale) {
+      Entry<?, ?> staleEntry = (Entry<?, ?>) stale;
+      AtomicReferenceArray<Entry<K, V>> table = this.table;
+      int index = staleEntry.hash & (table.length() - 1);
+      Entry<K, V> first = table.get(index);
+      for (Entry<K, V> entry = first; entry != null; entry = entry.next) {
+        // entries that were copied by a resize or a removal are no longer in the table, their copy
+        // is enqueued separately
+        if (entry == staleEntry) {
+          removeEntry(table, index, first, entry);
+          return;
+        }
+      }
+    }
+
+    // guarded by this
+    private void removeEntry(
+        AtomicReferenceArray<Entry<K, V>> table,
+        int index,
+        Entry<K, V> first,
+        Entry<K, V> removed) {
+      Entry<K, V> newFirst = removed.next;
+      for (Entry<K, V> entry = first; entry != removed; entry = entry.next) {
+        K key = entry.get();
+        if (key == null) {
+          // drop the stale entries while copying, their references are ignored when polled
+          count--;
+          continue;
+        }
+        newFirst = new Entry<>(key, entry.hash, entry.value, newFirst, queue);
+      }
+      table.set(index, newFirst);
+      count--;
+      // don't keep the value reachable for a concurrent lookup that already found the entry
+      removed.value = null;
+    }
+
+    // guarded by this
+    private AtomicReferenceArray<Entry<K, V>> resize(AtomicReferenceArray<Entry<K, V>> table) {
+      AtomicReferenceArray<Entry<K, V>> newTable = new AtomicReferenceArray<>(table.length() * 2);
+      int mask = newTable.length() - 1;
+      int newCount = 0;
+      for (int i = 0; i < table.length(); i++) {
+        for (Entry<K, V> entry = table.get(i); entry != null; entry = entry.next) {
+          K key = entry.get();
+          if (key == null) {
+            continue;
+          }
+          int index = entry.hash & mask;
+          newTable.set(
+              index, new Entry<>(key, entry.hash, entry.value, newTable.get(index), queue));
+          newCount++;
+        }
+      }
+      count = newCount;
+      this.table = newTable;
+      return newTable;
+    }
+  }
+
+  private static final class Entry<K, V> extends WeakReference<K> {
+    final int hash;
+    @Nullable final Entry<K, V> next;
+    @Nullable volatile V value;
+
+    Entry(
+        K key, int hash, @Nullable V value, @Nullable Entry<K, V> next, ReferenceQueue<K> queue) {
+      super(key, queue);
+      this.hash = hash;
+      this.value = value;
+      this.next = next;
+    }
+  }
+}
@@ -0,0 +1,621 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal.cache;
+
+import io.opentelemetry.instrumentation.api.internal.GuardedBy;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded cache using the W-TinyLFU eviction policy.
+ *
+ * <p>New entries are placed in a small LRU admission window. Entries leaving the window compete
+ * with the least recently used entry of the main space, and the one that was accessed less often
+ * according to a {@link FrequencySketch} is evicted. This keeps a long tail of one-off keys (e.g.
+ * unique SQL statements) from flushing out the frequently used ones, which happens with a pure LRU
+ * policy. The main space is a segmented LRU: entries accessed again while on probation are promoted
+ * to the protected segment.
+ *
+ * <p>Reads are recorded in lossy, striped ring buffers and writes in a queue; both are replayed
+ * against the eviction policy by whichever thread manages to acquire the eviction lock, so readers
+ * never block and rarely contend with each other.
+ *
+ * <p>Entries may have different weights. A candidate leaving the window keeps competing with the
+ * main space's victims until enough weight is freed, and is rejected as soon as it loses once, so
+ * that a single heavy but rarely used entry cannot flush out many light and popular ones.
+ */
+final class TinyLfuCache<K, V> implements Cache<K, V> {
+
+  private static final int NCPU = Runtime.getRuntime().availableProcessors();
+  private static final int READ_BUFFER_STRIPES = ceilingPowerOfTwo(Math.min(4 * NCPU, 64));
+  private static final int READ_BUFFER_SIZE = 16;
+  private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+  private static final double PERCENT_MAIN = 0.99;
+  private static final double PERCENT_MAIN_PROTECTED = 0.80;
+
+  private static final byte NONE = 0;
+  private static final byte WINDOW = 1;
+  private static final byte PROBATION = 2;
+  private static final byte PROTECTED = 3;
+
+  private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+  private final ToIntBiFunction<? super K, ? super V> weigher;
+  @Nullable private final CacheStats stats;
+  private final ReadBuffer<K, V>[] readBuffers;
+  private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  @GuardedBy("evictionLock")
+  private final FrequencySketch sketch;
+
+  @GuardedBy("evictionLock")
+  private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+
+  @GuardedBy("evictionLock")
+  private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+
+  @GuardedBy("evictionLock")
+  private final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<>();
+
+  private final long maximum;
+  private final long windowMaximum;
+  private final long protectedMaximum;
+
+  @GuardedBy("evictionLock")
+  private long weightedSize;
+
+  @GuardedBy("evictionLock")
+  private long windowWeightedSize;
+
+  @GuardedBy("evictionLock")
+  private long protectedWeightedSize;
+
+  TinyLfuCache(long maximumWeight) {
+    this(maximumWeight, (key, value) -> 1, CacheStats.BOUNDED);
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  TinyLfuCache(
+      long maximumWeight,
+      ToIntBiFunction<? super K, ? super V> weigher,
+      @Nullable CacheStats stats) {
+    if (maximumWeight < 0) {
+      throw new IllegalArgumentException("maximumWeight must not be negative");
+    }
+    this.weigher = weigher;
+    this.stats = stats;
+    this.maximum = maximumWeight;
+    long mainMaximum = (long) (maximumWeight * PERCENT_MAIN);
+    this.windowMaximum = maximumWeight - mainMaximum;
+    this.protectedMaximum = (long) (mainMaximum * PERCENT_MAIN_PROTECTED);
+    this.sketch = new FrequencySketch(maximumWeight);
+    this.readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+    for (int i = 0; i < readBuffers.length; i++) {
+      readBuffers[i] = new ReadBuffer<>();
+    }
+  }
+
+  @Override
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    Node<K, V> node = data.get(key);
+    if (node != null) {
+      recordHit();
+      afterRead(node);
+      return node.value;
+    }
+    recordMiss();
+    V value = mappingFunction.apply(key);
+    if (value == null) {
+      return null;
+    }
+    Node<K, V> newNode = new Node<>(key, value, weigh(key, value));
+    Node<K, V> prior = data.putIfAbsent(key, newNode);
+    if (prior != null) {
+      afterRead(prior);
+      return prior.value;
+    }
+    afterWrite(new AddTask(newNode));
+    return value;
+  }
+
+  @Nullable
+  @Override
+  public V get(K key) {
+    Node<K, V> node = data.get(key);
+    if (node == null) {
+      recordMiss();
+      return null;
+    }
+    recordHit();
+    afterRead(node);
+    return node.value;
+  }
+
+  @Override
+  public void put(K key, V value) {
+    int weight = weigh(key, value);
+    Node<K, V> newNode = new Node<>(key, value, weight);
+    while (true) {
+      Node<K, V> prior = data.putIfAbsent(key, newNode);
+      if (prior == null) {
+        afterWrite(new AddTask(newNode));
+        return;
+      }
+      if (prior.update(value, weight)) {
+        afterWrite(new UpdateTask(prior));
+        return;
+      }
+      // prior was evicted or removed concurrently, try again
+    }
+  }
+
+  @Override
+  public void remove(K key) {
+    Node<K, V> node = data.remove(key);
+    if (node != null) {
+      node.retire();
+      afterWrite(new RemoveTask(node));
+    }
+  }
+
+  // Visible for tests
+  int size() {
+    return data.size();
+  }
+
+  // Visible for tests
+  long weightedSize() {
+    evictionLock.lock();
+    try {
+      drainBuffers();
+      return weightedSize;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  // Visible for tests
+  int sketchCapacity() {
+    evictionLock.lock();
+    try {
+      return sketch.capacity();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private int weigh(K key, V value) {
+    int weight = weigher.applyAsInt(key, value);
+    if (weight < 1) {
+      throw new IllegalArgumentException("weight must be at least 1");
+    }
+    return weight;
+  }
+
+  private void recordHit() {
+    if (stats != null) {
+      stats.recordHit();
+    }
+  }
+
+  private void recordMiss() {
+    if (stats != null) {
+      stats.recordMiss();
+    }
+  }
+
+  private void afterRead(Node<K, V> node) {
+    ReadBuffer<K, V> readBuffer =
+        readBuffers[spread(Thread.currentThread().hashCode()) & (READ_BUFFER_STRIPES - 1)];
+    if (readBuffer.offer(node)) {
+      drain();
+    }
+  }
+
+  private void afterWrite(Runnable task) {
+    writeBuffer.add(task);
+    drain();
+  }
+
+  private void drain() {
+    do {
+      if (evictionLock.tryLock()) {
+        try {
+          drainBuffers();
+        } finally {
+          evictionLock.unlock();
+        }
+      } else {
+        // the thread holding the lock checks for pending writes after releasing it
+        return;
+      }
+    } while (!writeBuffer.isEmpty());
+  }
+
+  @GuardedBy("evictionLock")
+  private void drainBuffers() {
+    for (ReadBuffer<K, V> readBuffer : readBuffers) {
+      Node<K, V> node;
+      while ((node = readBuffer.poll()) != null) {
+        onAccess(node);
+      }
+    }
+    Runnable task;
+    while ((task = writeBuffer.poll()) != null) {
+      task.run();
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void onAccess(Node<K, V> node) {
+    sketch.increment(node.key);
+    switch (node.queue) {
+      case WINDOW:
+        window.moveToBack(node);
+        break;
+      case PROBATION:
+        probation.remove(node);
+        node.queue = PROTECTED;
+        protectedSegment.addLast(node);
+        protectedWeightedSize += node.policyWeight;
+        demoteFromProtected();
+        break;
+      case PROTECTED:
+        protectedSegment.moveToBack(node);
+        break;
+      default:
+        // not added yet, or already evicted
+        break;
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void demoteFromProtected() {
+    while (protectedWeightedSize > protectedMaximum) {
+      Node<K, V> demoted = protectedSegment.pollFirst();
+      if (demoted == null) {
+        break;
+      }
+      protectedWeightedSize -= demoted.policyWeight;
+      demoted.queue = PROBATION;
+      probation.addLast(demoted);
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void evict() {
+    // entries leaving the admission window compete with the main space's victim
+    while (windowWeightedSize > windowMaximum) {
+      Node<K, V> candidate = window.pollFirst();
+      if (candidate == null) {
+        break;
+      }
+      windowWeightedSize -= candidate.policyWeight;
+      candidate.queue = PROBATION;
+      probation.addLast(candidate);
+
+      admit(candidate);
+    }
+    // entries may still exceed the maximum when weights were increased, evict in lru order
+    while (weightedSize > maximum) {
+      Node<K, V> victim = probation.peekFirst();
+      if (victim == null) {
+        victim = protectedSegment.peekFirst();
+      }
+      if (victim == null) {
+        victim = window.peekFirst();
+      }
+      if (victim == null) {
+        break;
+      }
+      evictEntry(victim);
+    }
+  }
+
+  /**
+   * Makes room for a candidate that has just left the window by evicting the main space's victims
+   * that are used less often than the candidate, or evicts the candidate itself once it loses.
+   */
+  @GuardedBy("evictionLock")
+  private void admit(Node<K, V> candidate) {
+    int candidateFrequency = -1;
+    while (weightedSize > maximum) {
+      // the candidate was appended to probation, so it is the first one only when it is alone
+      Node<K, V> victim = probation.peekFirst();
+      if (victim == candidate) {
+        victim = protectedSegment.peekFirst();
+      }
+      if (victim == null) {
+        evictEntry(candidate);
+        return;
+      }
+      if (candidateFrequency < 0) {
+        candidateFrequency = sketch.frequency(candidate.key);
+      }
+      if (candidateFrequency <= sketch.frequency(victim.key)) {
+        evictEntry(candidate);
+        return;
+      }
+      evictEntry(victim);
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void evictEntry(Node<K, V> node) {
+    unlink(node);
+    if (data.remove(node.key, node)) {
+      node.retire();
+      if (stats != null) {
+        stats.recordEviction();
+      }
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void unlink(Node<K, V> node) {
+    switch (node.queue) {
+      case WINDOW:
+        window.remove(node);
+        windowWeightedSize -= node.policyWeight;
+        break;
+      case PROBATION:
+        probation.remove(node);
+        break;
+      case PROTECTED:
+        protectedSegment.remove(node);
+        protectedWeightedSize -= node.policyWeight;
+        break;
+      default:
+        return;
+    }
+    weightedSize -= node.policyWeight;
+    node.queue = NONE;
+  }
+
+  /** Adds a new node to the admission window. */
+  private final class AddTask implements Runnable {
+    private final Node<K, V> node;
+
+    AddTask(Node<K, V> node) {
+      this.node = node;
+    }
+
+    @Override
+    @GuardedBy("evictionLock")
+    public void run() {
+      // the sketch is sized by the number of entries, the maximum may be expressed in weight
+      sketch.ensureCapacity(data.size());
+      sketch.increment(node.key);
+      // the node may have been removed before this task ran, in which case its removal task was
+      // a no-op and the node must not be added to the policy
+      if (node.isRetired()) {
+        return;
+      }
+      // the node may have been updated before this task ran, an update task that ran first was
+      // ignored because the node wasn't in the policy yet, so the current weight is used
+      node.policyWeight = node.getWeight();
+      node.queue = WINDOW;
+      window.addLast(node);
+      weightedSize += node.policyWeight;
+      windowWeightedSize += node.policyWeight;
+      evict();
+    }
+  }
+
+  /**
+   * Applies the current weight of an updated node and records the update as an access. The weight
+   * is read when the task runs, so that concurrent updates of a node are applied only once.
+   */
+  private final class UpdateTask implements Runnable {
+    private final Node<K, V> node;
+
+    UpdateTask(Node<K, V> node) {
+      this.node = node;
+    }
+
+    @Override
+    @GuardedBy("evictionLock")
+    public void run() {
+      // ignore updates of nodes that were evicted in the meantime, or that are not added to the
+      // policy yet, the add task applies their current weight
+      if (node.queue == NONE) {
+        return;
+      }
+      int weightDifference = node.getWeight() - node.policyWeight;
+      node.policyWeight += weightDifference;
+      weightedSize += weightDifference;
+      if (node.queue == WINDOW) {
+        windowWeightedSize += weightDifference;
+      } else if (node.queue == PROTECTED) {
+        protectedWeightedSize += weightDifference;
+      }
+      onAccess(node);
+      evict();
+    }
+  }
+
+  /** Removes a node that was removed from the map from the eviction policy. */
+  private final class RemoveTask implements Runnable {
+    private final Node<K, V> node;
+
+    RemoveTask(Node<K, V> node) {
+      this.node = node;
+    }
+
+    @Override
+    @GuardedBy("evictionLock")
+    public void run() {
+      unlink(node);
+    }
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+
+  private static int ceilingPowerOfTwo(int x) {
+    return x <= 1 ? 1 : 1 << (Integer.SIZE - Integer.numberOfLeadingZeros(x - 1));
+  }
+
+  private static final class Node<K, V> {
+    final K key;
+    volatile V value;
+
+    @GuardedBy("this")
+    private int weight;
+
+    @GuardedBy("this")
+    private boolean retired;
+
+    // policy state, guarded by the cache's evictionLock
+    int policyWeight;
+    byte queue = NONE;
+    @Nullable Node<K, V> prev;
+    @Nullable Node<K, V> next;
+
+    Node(K key, V value, int weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+      this.policyWeight = weight;
+    }
+
+    /**
+     * Replaces the value and returns {@code true}, or returns {@code false} when the node has
+     * already been removed from the cache.
+     */
+    synchronized boolean update(V value, int weight) {
+      if (retired) {
+        return false;
+      }
+      this.value = value;
+      this.weight = weight;
+      return true;
+    }
+
+    synchronized int getWeight() {
+      return weight;
+    }
+
+    synchronized void retire() {
+      retired = true;
+    }
+
+    synchronized boolean isRetired() {
+      return retired;
+    }
+  }
+
+  /** A doubly-linked list of nodes ordered from least to most recently used. */
+  private static final class AccessOrderDeque<K, V> {
+    @Nullable private Node<K, V> first;
+    @Nullable private Node<K, V> last;
+
+    @Nullable
+    Node<K, V> peekFirst() {
+      return first;
+    }
+
+    @Nullable
+    Node<K, V> pollFirst() {
+      Node<K, V> node = first;
+      if (node != null) {
+        remove(node);
+      }
+      return node;
+    }
+
+    void addLast(Node<K, V> node) {
+      node.prev = last;
+      node.next = null;
+      if (last == null) {
+        first = node;
+      } else {
+        last.next = node;
+      }
+      last = node;
+    }
+
+    void remove(Node<K, V> node) {
+      Node<K, V> prev = node.prev;
+      Node<K, V> next = node.next;
+      if (prev == null) {
+        first = next;
+      } else {
+        prev.next = next;
+      }
+      if (next == null) {
+        last = prev;
+      } else {
+        next.prev = prev;
+      }
+      node.prev = null;
+      node.next = null;
+    }
+
+    void moveToBack(Node<K, V> node) {
+      if (node != last) {
+        remove(node);
+        addLast(node);
+      }
+    }
+  }
+
+  /**
+   * A lossy ring buffer of recent reads. Reads are dropped when the buffer is full or when another
+   * thread wins the race for the same slot; losing a few reads only makes the recency and frequency
+   * information slightly less precise.
+   */
+  private static final class ReadBuffer<K, V> {
+    private final AtomicLong writeCounter = new AtomicLong();
+    private final AtomicReferenceArray<Node<K, V>> buffer =
+        new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    // only written while holding the eviction lock
+    private volatile long readCounter;
+
+    /** Records the read and returns whether the buffer should be drained. */
+    boolean offer(Node<K, V> node) {
+      long head = readCounter;
+      long tail = writeCounter.get();
+      long size = tail - head;
+      if (size >= READ_BUFFER_SIZE) {
+        return true;
+      }
+      if (writeCounter.compareAndSet(tail, tail + 1)) {
+        buffer.lazySet((int) (tail & READ_BUFFER_MASK), node);
+        return size + 1 >= READ_BUFFER_SIZE;
+      }
+      return false;
+    }
+
+    /** Returns the next recorded read; must only be called while holding the eviction lock. */
+    @Nullable
+    Node<K, V> poll() {
+      long head = readCounter;
+      if (head == writeCounter.get()) {
+        return null;
+      }
+      int index = (int) (head & READ_BUFFER_MASK);
+      Node<K, V> node = buffer.get(index);
+      if (node == null) {
+        // the writer has claimed the slot but not published the node yet
+        return null;
+      }
+      buffer.lazySet(index, null);
+      readCounter = head + 1;
+      return node;
+    }
+  }
+}
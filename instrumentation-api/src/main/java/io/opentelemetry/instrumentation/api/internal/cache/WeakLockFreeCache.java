@@ -7,23 +7,44 @@ package io.opentelemetry.instrumentation.api.internal.cache;
 
 import io.opentelemetry.instrumentation.api.internal.cache.weaklockfree.WeakConcurrentMap;
 import java.util.function.Function;
+import javax.annotation.Nullable;
 
 final class WeakLockFreeCache<K, V> implements Cache<K, V> {
 
   private final WeakConcurrentMap<K, V> delegate;
+  // entries that are removed because their key was garbage collected are not counted as evictions
+  @Nullable private final CacheStats stats;
 
-  WeakLockFreeCache() {
+  WeakLockFreeCache(@Nullable CacheStats stats) {
     this.delegate = new WeakConcurrentMap.WithInlinedExpunction<>();
+    this.stats = stats;
   }
 
   @Override
   public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    if (stats == null) {
+      return delegate.computeIfAbsent(key, mappingFunction);
+    }
+    V value = delegate.getIfPresent(key);
+    if (value != null) {
+      stats.recordHit();
+      return value;
+    }
+    stats.recordMiss();
     return delegate.computeIfAbsent(key, mappingFunction);
   }
 
   @Override
   public V get(K key) {
-    return delegate.getIfPresent(key);
+    V value = delegate.getIfPresent(key);
+    if (stats != null) {
+      if (value != null) {
+        stats.recordHit();
+      } else {
+        stats.recordMiss();
+      }
+    }
+    return value;
   }
 
   @Override
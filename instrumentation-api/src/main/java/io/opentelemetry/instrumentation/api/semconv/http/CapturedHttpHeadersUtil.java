@@ -29,14 +29,43 @@ final class CapturedHttpHeadersUtil {
         .toArray(new String[0]);
   }
 
-  static AttributeKey<List<String>> requestAttributeKey(String headerName) {
+  /**
+   * Returns the attribute keys of the given lowercase header names, in the same order, so that
+   * extractors can look them up by index instead of by name for every request.
+   */
+  static AttributeKey<List<String>>[] requestAttributeKeys(String[] headerNames) {
+    AttributeKey<List<String>>[] keys = newKeyArray(headerNames.length);
+    for (int i = 0; i < headerNames.length; i++) {
+      keys[i] = requestAttributeKey(headerNames[i]);
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the attribute keys of the given lowercase header names, in the same order, so that
+   * extractors can look them up by index instead of by name for every request.
+   */
+  static AttributeKey<List<String>>[] responseAttributeKeys(String[] headerNames) {
+    AttributeKey<List<String>>[] keys = newKeyArray(headerNames.length);
+    for (int i = 0; i < headerNames.length; i++) {
+      keys[i] = responseAttributeKey(headerNames[i]);
+    }
+    return keys;
+  }
+
+  private static AttributeKey<List<String>> requestAttributeKey(String headerName) {
     return requestKeysCache.computeIfAbsent(headerName, n -> createKey("request", n));
   }
 
-  static AttributeKey<List<String>> responseAttributeKey(String headerName) {
+  private static AttributeKey<List<String>> responseAttributeKey(String headerName) {
     return responseKeysCache.computeIfAbsent(headerName, n -> createKey("response", n));
   }
 
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static AttributeKey<List<String>>[] newKeyArray(int length) {
+    return new AttributeKey[length];
+  }
+
   private static AttributeKey<List<String>> createKey(String type, String headerName) {
     // headerName is always lowercase, see CapturedHttpHeadersUtil#lowercase
     String key = "http." + type + ".header." + headerName;
@@ -25,6 +25,7 @@ import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.context.ContextKey;
 import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.instrumentation.api.internal.InstrumenterUtil;
 import io.opentelemetry.instrumentation.api.internal.SchemaUrlProvider;
 import io.opentelemetry.instrumentation.api.internal.SpanKey;
 import io.opentelemetry.instrumentation.api.internal.SpanKeyProvider;
@@ -555,6 +556,151 @@ class InstrumenterTest {
     assertThat(instrumenter.shouldStart(Context.root(), "request")).isFalse();
   }
 
+  @Test
+  void reuseOperationBuffersThroughInstrumenterUtil() {
+    InstrumenterBuilder<Map<String, String>, Map<String, String>> builder =
+        Instrumenter.builder(otelTesting.getOpenTelemetry(), "test", unused -> "span");
+
+    InstrumenterUtil.setReuseOperationBuffers(builder, true);
+    assertThat(builder.reuseOperationBuffers).isTrue();
+    InstrumenterUtil.setReuseOperationBuffers(builder, false);
+    assertThat(builder.reuseOperationBuffers).isFalse();
+  }
+
+  @Test
+  void reuseOperationBuffers() {
+    Instrumenter<Map<String, String>, Map<String, String>> instrumenter =
+        Instrumenter.<Map<String, String>, Map<String, String>>builder(
+                otelTesting.getOpenTelemetry(), "test", unused -> "span")
+            .addAttributesExtractor(new AttributesExtractor1())
+            .addAttributesExtractor(new AttributesExtractor2())
+            .addSpanLinksExtractor(new LinksExtractor())
+            .setReuseOperationBuffers(true)
+            .buildServerInstrumenter(new MapGetter());
+
+    Context context = instrumenter.start(Context.root(), REQUEST);
+    instrumenter.end(context, REQUEST, RESPONSE, null);
+    Map<String, String> otherRequest = new HashMap<>(REQUEST);
+    otherRequest.put("req1", "other_value");
+    context = instrumenter.start(Context.root(), otherRequest);
+    instrumenter.end(context, otherRequest, RESPONSE, new IllegalStateException("test"));
+
+    otelTesting
+        .assertTraces()
+        .hasTracesSatisfyingExactly(
+            trace ->
+                trace.hasSpansSatisfyingExactly(
+                    span ->
+                        span.hasName("span")
+                            .hasStatus(StatusData.unset())
+                            .hasLinks(expectedSpanLink())
+                            .hasAttributesSatisfyingExactly(
+                                equalTo(AttributeKey.stringKey("req1"), "req1_value"),
+                                equalTo(AttributeKey.stringKey("req2"), "req2_2_value"),
+                                equalTo(AttributeKey.stringKey("req3"), "req3_value"),
+                                equalTo(AttributeKey.stringKey("resp1"), "resp1_value"),
+                                equalTo(AttributeKey.stringKey("resp2"), "resp2_2_value"),
+                                equalTo(AttributeKey.stringKey("resp3"), "resp3_value"))),
+            trace ->
+                trace.hasSpansSatisfyingExactly(
+                    span ->
+                        span.hasName("span")
+                            .hasStatus(StatusData.error())
+                            .hasLinks(expectedSpanLink())
+                            .hasAttributesSatisfyingExactly(
+                                equalTo(AttributeKey.stringKey("req1"), "other_value"),
+                                equalTo(AttributeKey.stringKey("req2"), "req2_2_value"),
+                                equalTo(AttributeKey.stringKey("req3"), "req3_value"),
+                                equalTo(AttributeKey.stringKey("resp1"), "resp1_value"),
+                                equalTo(AttributeKey.stringKey("resp2"), "resp2_2_value"),
+                                equalTo(AttributeKey.stringKey("resp3"), "resp3_value"))));
+  }
+
+  @Test
+  void reuseOperationBuffers_startAttributesKeptByOperationListener() {
+    AtomicReference<Attributes> startAttributes = new AtomicReference<>();
+
+    OperationListener operationListener =
+        new OperationListener() {
+          @Override
+          public Context onStart(Context context, Attributes attributes, long startNanos) {
+            startAttributes.set(attributes);
+            return context;
+          }
+
+          @Override
+          public void onEnd(Context context, Attributes endAttributes, long endNanos) {}
+        };
+
+    Instrumenter<Map<String, String>, Map<String, String>> instrumenter =
+        Instrumenter.<Map<String, String>, Map<String, String>>builder(
+                otelTesting.getOpenTelemetry(), "test", unused -> "span")
+            .addAttributesExtractor(new AttributesExtractor1())
+            .addOperationListener(operationListener)
+            .setReuseOperationBuffers(true)
+            .buildServerInstrumenter(new MapGetter());
+
+    Context context = instrumenter.start(Context.root(), REQUEST);
+    instrumenter.end(context, REQUEST, RESPONSE, null);
+
+    assertThat(startAttributes.get())
+        .containsOnly(
+            entry(AttributeKey.stringKey("req1"), "req1_value"),
+            entry(AttributeKey.stringKey("req2"), "req2_value"));
+  }
+
+  @Test
+  void reuseOperationBuffers_nestedOperation() {
+    Instrumenter<String, String> inner =
+        Instrumenter.<String, String>builder(
+                otelTesting.getOpenTelemetry(), "test", request -> "inner")
+            .addAttributesExtractor(
+                AttributesExtractor.constant(AttributeKey.stringKey("inner"), "value"))
+            .setReuseOperationBuffers(true)
+            .buildInstrumenter();
+    Instrumenter<String, String> outer =
+        Instrumenter.<String, String>builder(
+                otelTesting.getOpenTelemetry(), "test", request -> "outer")
+            .addAttributesExtractor(
+                new AttributesExtractor<String, String>() {
+                  @Override
+                  public void onStart(
+                      AttributesBuilder attributes, Context parentContext, String request) {
+                    attributes.put("outer", "value");
+                    inner.end(inner.start(parentContext, request), request, null, null);
+                  }
+
+                  @Override
+                  public void onEnd(
+                      AttributesBuilder attributes,
+                      Context context,
+                      String request,
+                      @Nullable String response,
+                      @Nullable Throwable error) {}
+                })
+            .setReuseOperationBuffers(true)
+            .buildInstrumenter();
+
+    Context context = outer.start(Context.root(), "request");
+    outer.end(context, "request", "response", null);
+
+    otelTesting
+        .assertTraces()
+        .hasTracesSatisfyingExactly(
+            trace ->
+                trace.hasSpansSatisfyingExactly(
+                    span ->
+                        span.hasName("inner")
+                            .hasAttributesSatisfyingExactly(
+                                equalTo(AttributeKey.stringKey("inner"), "value"))),
+            trace ->
+                trace.hasSpansSatisfyingExactly(
+                    span ->
+                        span.hasName("outer")
+                            .hasAttributesSatisfyingExactly(
+                                equalTo(AttributeKey.stringKey("outer"), "value"))));
+  }
+
   @Test
   void instrumentationVersion_default() {
     InstrumenterBuilder<Map<String, String>, Map<String, String>> builder =
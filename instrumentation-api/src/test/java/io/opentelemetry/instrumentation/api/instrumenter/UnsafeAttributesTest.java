@@ -83,4 +83,56 @@ class UnsafeAttributesTest {
             attributeEntry("lives", 9L),
             attributeEntry("clothes", "fur"));
   }
+
+  @Test
+  void growsBeyondExpectedSize() {
+    UnsafeAttributes attributes = new UnsafeAttributes(1);
+    for (int i = 0; i < 20; i++) {
+      attributes.put("key" + i, (long) i);
+    }
+    attributes.put("key3", 33L);
+
+    assertThat((Attributes) attributes).hasSize(20).containsEntry("key3", 33L);
+    assertThat(attributes.get(AttributeKey.longKey("key19"))).isEqualTo(19L);
+  }
+
+  @Test
+  void removeAndClear() {
+    UnsafeAttributes attributes = new UnsafeAttributes();
+    attributes.put("one", "1").put("two", "2").put("three", "3");
+    attributes.put(AttributeKey.stringKey("null"), null);
+
+    attributes.remove(AttributeKey.stringKey("two"));
+    assertThat((Attributes) attributes)
+        .containsOnly(attributeEntry("one", "1"), attributeEntry("three", "3"));
+
+    attributes.clear();
+    assertThat((Attributes) attributes).isEmpty();
+    attributes.put("four", "4");
+    assertThat((Attributes) attributes).containsOnly(attributeEntry("four", "4"));
+  }
+
+  @Test
+  void equalsByContent() {
+    UnsafeAttributes attributes = new UnsafeAttributes();
+    attributes.put("animal", "cat");
+    attributes.put("lives", 9L);
+
+    UnsafeAttributes sameContent = new UnsafeAttributes(2);
+    sameContent.put("lives", 9L);
+    sameContent.put("animal", "cat");
+
+    UnsafeAttributes otherContent = new UnsafeAttributes();
+    otherContent.put("animal", "dog");
+    otherContent.put("lives", 9L);
+
+    assertThat((Attributes) attributes).isEqualTo(sameContent);
+    assertThat(attributes.hashCode()).isEqualTo(sameContent.hashCode());
+    assertThat((Attributes) attributes).isNotEqualTo(otherContent);
+
+    otherContent.put("animal", "cat");
+    assertThat((Attributes) attributes).isEqualTo(otherContent);
+    otherContent.put("clothes", "fur");
+    assertThat((Attributes) attributes).isNotEqualTo(otherContent);
+  }
 }
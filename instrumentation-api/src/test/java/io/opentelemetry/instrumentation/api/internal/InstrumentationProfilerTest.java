@@ -0,0 +1,67 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class InstrumentationProfilerTest {
+
+  @Test
+  void disabled() {
+    List<String> reports = new ArrayList<>();
+    InstrumentationProfiler profiler = new InstrumentationProfiler(false, 1, reports::add);
+
+    InstrumentationProfiler.Profile profile = profiler.profile("favoriteInstrumentation");
+    assertThat(profile.sample()).isFalse();
+
+    profiler.report();
+    assertThat(reports).isEmpty();
+  }
+
+  @Test
+  void reportsSampledDurations() {
+    List<String> reports = new ArrayList<>();
+    InstrumentationProfiler profiler = new InstrumentationProfiler(true, 1, reports::add);
+
+    InstrumentationProfiler.Profile profile = profiler.profile("favoriteInstrumentation");
+    assertThat(profiler.profile("favoriteInstrumentation")).isSameAs(profile);
+    assertThat(profile.sample()).isTrue();
+    profile.recordStart(1_000);
+    profile.recordStart(3_000);
+    profile.recordEnd(500);
+    profiler.profile("otherInstrumentation");
+
+    profiler.report();
+
+    assertThat(reports)
+        .containsExactly(
+            "Instrumentation 'favoriteInstrumentation' (start) : 2 samples, p50 1.0 us,"
+                + " p99 4.1 us, estimated total 0.000 s",
+            "Instrumentation 'favoriteInstrumentation' (end) : 1 samples, p50 0.5 us,"
+                + " p99 0.5 us, estimated total 0.000 s");
+  }
+
+  @Test
+  void histogramQuantiles() {
+    InstrumentationProfiler.LatencyHistogram histogram =
+        new InstrumentationProfiler.LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(100);
+    }
+    histogram.record(10_000);
+
+    assertThat(histogram.getCount()).isEqualTo(100);
+    assertThat(histogram.getSumNanos()).isEqualTo(99 * 100 + 10_000);
+    // 100 is in the bucket [64, 128), 10_000 in [8192, 16384)
+    assertThat(histogram.getQuantileNanos(0.5)).isEqualTo(127);
+    assertThat(histogram.getQuantileNanos(0.99)).isEqualTo(127);
+    assertThat(histogram.getQuantileNanos(1)).isEqualTo(16383);
+  }
+}
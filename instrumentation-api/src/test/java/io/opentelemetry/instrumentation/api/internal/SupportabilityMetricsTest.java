@@ -71,4 +71,18 @@ class SupportabilityMetricsTest {
             "Suppressed Spans by 'favoriteInstrumentation' (CLIENT) : 1",
             "Counter 'some counter' : 1");
   }
+
+  @Test
+  void countsSpans() {
+    SupportabilityMetrics metrics = new SupportabilityMetrics(false, s -> {});
+
+    SupportabilityMetrics.SpanCounters counters = metrics.spanCounters("favoriteInstrumentation");
+    assertThat(metrics.spanCounters("favoriteInstrumentation")).isSameAs(counters);
+    counters.recordStart();
+    counters.recordStart();
+    counters.recordEnd();
+
+    assertThat(counters.getStartedCount()).isEqualTo(2);
+    assertThat(counters.getEndedCount()).isEqualTo(1);
+  }
 }
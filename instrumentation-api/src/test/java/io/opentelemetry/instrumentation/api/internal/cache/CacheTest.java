@@ -8,6 +8,8 @@ package io.opentelemetry.instrumentation.api.internal.cache;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -35,6 +37,20 @@ class CacheTest {
       assertThat(mapBackedCache.size()).isEqualTo(1);
       assertThat(cache.computeIfAbsent("cat", unused -> "purr")).isEqualTo("purr");
     }
+
+    @Test
+    void boundedWithStats() {
+      CacheStats stats = CacheStats.create("bounded-test");
+      Cache<String, String> cache = Cache.bounded(1, stats);
+
+      assertThat(cache.computeIfAbsent("cat", unused -> "meow")).isEqualTo("meow");
+      assertThat(cache.computeIfAbsent("cat", unused -> "purr")).isEqualTo("meow");
+      assertThat(cache.computeIfAbsent("dog", unused -> "bark")).isEqualTo("bark");
+
+      assertThat(stats.getHitCount()).isEqualTo(1);
+      assertThat(stats.getMissCount()).isEqualTo(2);
+      assertThat(stats.getEvictionCount()).isEqualTo(1);
+    }
   }
 
   @Nested
@@ -75,4 +91,62 @@ class CacheTest {
       await().untilAsserted(() -> assertThat(weakLockFreeCache.size()).isEqualTo(0));
     }
   }
+
+  @Nested
+  @SuppressWarnings("ClassCanBeStatic")
+  class StripedWeakKeys {
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    @Test
+    void unbounded() {
+      Cache<String, String> cache = Cache.weakStriped();
+
+      assertThat(cache.computeIfAbsent("bear", unused -> "roar")).isEqualTo("roar");
+      cache.remove("bear");
+
+      StripedWeakCache<?, ?> stripedWeakCache = ((StripedWeakCache<?, ?>) cache);
+      String cat = new String("cat");
+      String dog = new String("dog");
+      assertThat(cache.computeIfAbsent(cat, unused -> "meow")).isEqualTo("meow");
+      assertThat(stripedWeakCache.size()).isEqualTo(1);
+
+      assertThat(cache.computeIfAbsent(cat, unused -> "bark")).isEqualTo("meow");
+      assertThat(stripedWeakCache.size()).isEqualTo(1);
+
+      cache.put(dog, "bark");
+      assertThat(cache.get(dog)).isEqualTo("bark");
+      assertThat(cache.get(cat)).isEqualTo("meow");
+      assertThat(cache.get(new String("dog"))).isNull();
+      assertThat(stripedWeakCache.size()).isEqualTo(2);
+      assertThat(cache.computeIfAbsent(cat, unused -> "meow")).isEqualTo("meow");
+
+      cat = null;
+      System.gc();
+      // Wait for GC to be reflected.
+      await().untilAsserted(() -> assertThat(stripedWeakCache.size()).isEqualTo(1));
+      assertThat(cache.computeIfAbsent(dog, unused -> "bark")).isEqualTo("bark");
+      dog = null;
+      System.gc();
+      // Wait for GC to be reflected.
+      await().untilAsserted(() -> assertThat(stripedWeakCache.size()).isEqualTo(0));
+    }
+
+    @Test
+    void manyKeys() {
+      Cache<Object, Integer> cache = Cache.weakStriped();
+      List<Object> keys = new ArrayList<>();
+      for (int i = 0; i < 10_000; i++) {
+        Object key = new Object();
+        keys.add(key);
+        cache.put(key, i);
+      }
+      for (int i = 0; i < keys.size(); i += 2) {
+        cache.remove(keys.get(i));
+      }
+
+      for (int i = 0; i < keys.size(); i++) {
+        assertThat(cache.get(keys.get(i))).isEqualTo(i % 2 == 0 ? null : i);
+      }
+      assertThat(((StripedWeakCache<?, ?>) cache).size()).isEqualTo(5_000);
+    }
+  }
 }
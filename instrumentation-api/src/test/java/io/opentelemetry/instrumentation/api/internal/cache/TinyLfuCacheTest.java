@@ -0,0 +1,225 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TinyLfuCacheTest {
+
+  @Test
+  void bounded() {
+    Cache<String, String> cache = Cache.boundedTinyLfu(1);
+
+    assertThat(cache.computeIfAbsent("bear", unused -> "roar")).isEqualTo("roar");
+    cache.remove("bear");
+
+    TinyLfuCache<?, ?> tinyLfuCache = ((TinyLfuCache<?, ?>) cache);
+    assertThat(cache.computeIfAbsent("cat", unused -> "meow")).isEqualTo("meow");
+    assertThat(tinyLfuCache.size()).isEqualTo(1);
+
+    assertThat(cache.computeIfAbsent("cat", unused -> "bark")).isEqualTo("meow");
+    assertThat(tinyLfuCache.size()).isEqualTo(1);
+
+    cache.put("dog", "bark");
+    assertThat(cache.get("dog")).isEqualTo("bark");
+    assertThat(tinyLfuCache.size()).isEqualTo(1);
+    assertThat(cache.computeIfAbsent("cat", unused -> "purr")).isEqualTo("purr");
+  }
+
+  @Test
+  void putReplacesValue() {
+    Cache<String, String> cache = Cache.boundedTinyLfu(10);
+
+    cache.put("cat", "meow");
+    cache.put("cat", "purr");
+
+    assertThat(cache.get("cat")).isEqualTo("purr");
+    assertThat(((TinyLfuCache<?, ?>) cache).size()).isEqualTo(1);
+  }
+
+  @Test
+  void frequentlyUsedEntriesSurviveScan() {
+    Cache<String, String> cache = Cache.boundedTinyLfu(100);
+
+    for (int round = 0; round < 10; round++) {
+      for (int i = 0; i < 50; i++) {
+        cache.computeIfAbsent("hot" + i, key -> key);
+      }
+    }
+    // a scan of one-off keys that would flush all the hot entries out of an lru cache
+    for (int i = 0; i < 500; i++) {
+      cache.computeIfAbsent("scan" + i, key -> key);
+    }
+
+    int hotEntries = 0;
+    for (int i = 0; i < 50; i++) {
+      if (cache.get("hot" + i) != null) {
+        hotEntries++;
+      }
+    }
+    assertThat(hotEntries).isEqualTo(50);
+    assertThat(((TinyLfuCache<?, ?>) cache).size()).isLessThanOrEqualTo(100);
+  }
+
+  @Test
+  void weighted() {
+    TinyLfuCache<String, String> cache =
+        new TinyLfuCache<>(10, (key, value) -> value.length(), null);
+
+    cache.put("first", "123456");
+    cache.put("second", "123456");
+
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void heavyEntryDoesNotEvictPopularEntries() {
+    Cache<String, String> cache =
+        Cache.boundedTinyLfu(
+            100, (key, value) -> value.length(), CacheStats.create("heavy-entry-test"));
+
+    for (int round = 0; round < 10; round++) {
+      for (int i = 0; i < 90; i++) {
+        cache.computeIfAbsent("k" + i, key -> "x");
+      }
+    }
+    String heavy = new String(new char[50]);
+    cache.computeIfAbsent("heavy", key -> heavy);
+    cache.computeIfAbsent("trigger", key -> "x");
+
+    int light = 0;
+    for (int i = 0; i < 90; i++) {
+      if (cache.get("k" + i) != null) {
+        light++;
+      }
+    }
+    assertThat(light).isGreaterThanOrEqualTo(89);
+    assertThat(cache.get("heavy")).isNull();
+  }
+
+  @Test
+  void sketchIsSizedByEntriesNotWeight() {
+    TinyLfuCache<Integer, Integer> cache =
+        new TinyLfuCache<>(1L << 30, (key, value) -> 1024, null);
+    // a sketch sized by the maximum weight would be a long[1 << 30]
+    assertThat(cache.sketchCapacity()).isLessThanOrEqualTo(16);
+
+    for (int i = 0; i < 1000; i++) {
+      cache.put(i, i);
+    }
+    assertThat(cache.size()).isEqualTo(1000);
+    assertThat(cache.sketchCapacity()).isBetween(1000, 2048);
+  }
+
+  @Test
+  void sketchDoesNotGrowBeyondMaximum() {
+    TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(8);
+
+    for (int i = 0; i < 1000; i++) {
+      cache.put(i, i);
+    }
+    assertThat(cache.sketchCapacity()).isEqualTo(8);
+  }
+
+  @Test
+  void stats() {
+    CacheStats stats = CacheStats.create("stats-test");
+    Cache<Integer, Integer> cache = Cache.boundedTinyLfu(2, (key, value) -> 1, stats);
+
+    cache.computeIfAbsent(1, key -> key);
+    cache.computeIfAbsent(1, key -> key);
+    cache.get(2);
+    cache.computeIfAbsent(2, key -> key);
+    cache.computeIfAbsent(3, key -> key);
+    cache.computeIfAbsent(4, key -> key);
+
+    assertThat(stats.getCacheName()).isEqualTo("stats-test");
+    assertThat(stats.getHitCount()).isEqualTo(1);
+    assertThat(stats.getMissCount()).isEqualTo(5);
+    assertThat(stats.getEvictionCount()).isEqualTo(2);
+    assertThat(CacheStats.registered()).contains(stats);
+  }
+
+  @Test
+  void concurrentAccess() throws Exception {
+    Cache<Integer, Integer> cache = Cache.boundedTinyLfu(64);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 10_000; i++) {
+                    int key = ThreadLocalRandom.current().nextInt(256);
+                    assertThat(cache.computeIfAbsent(key, k -> k)).isEqualTo(key);
+                    if (i % 10 == 0) {
+                      cache.remove(key);
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // trigger a drain from this thread so that pending writes are applied
+    cache.put(-1, -1);
+    assertThat(((TinyLfuCache<?, ?>) cache).size()).isLessThanOrEqualTo(64);
+  }
+
+  @Test
+  void weightedSizeFollowsConcurrentUpdates() throws Exception {
+    TinyLfuCache<Integer, String> cache =
+        new TinyLfuCache<>(1_000_000, (key, value) -> value.length(), null);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 10_000; i++) {
+                    // few keys, so that a node is often updated right after it was added
+                    int key = ThreadLocalRandom.current().nextInt(4);
+                    if (i % 10 == 0) {
+                      cache.remove(key);
+                    } else {
+                      int length = 1 + ThreadLocalRandom.current().nextInt(100);
+                      cache.put(key, new String(new char[length]));
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long expectedWeight = 0;
+    for (int key = 0; key < 4; key++) {
+      String value = cache.get(key);
+      if (value != null) {
+        expectedWeight += value.length();
+      }
+    }
+    assertThat(cache.weightedSize()).isEqualTo(expectedWeight);
+  }
+}
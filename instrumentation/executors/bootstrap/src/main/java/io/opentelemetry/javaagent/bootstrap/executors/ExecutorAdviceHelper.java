@@ -46,7 +46,7 @@ public final class ExecutorAdviceHelper {
    * that unwanted tasks are not instrumented.
    */
   public static boolean shouldPropagateContext(Context context, @Nullable Object task) {
-    if (task == null || isPropagationDisabled()) {
+    if (task == null) {
       return false;
     }
 
@@ -56,6 +56,12 @@ public final class ExecutorAdviceHelper {
       return false;
     }
 
+    // checked after the reference comparison above, so that the common case of submitting tasks
+    // outside of any trace doesn't need a thread local lookup
+    if (isPropagationDisabled()) {
+      return false;
+    }
+
     return InstrumentedTaskClasses.canInstrumentTaskClass(task.getClass());
   }
 
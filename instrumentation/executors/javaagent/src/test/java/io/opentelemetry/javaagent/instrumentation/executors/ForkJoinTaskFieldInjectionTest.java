@@ -0,0 +1,52 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.instrumentation.executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// This class tests that the agent startup doesn't load ForkJoinTask subclasses before the agent
+// transformer is installed, these classes would then be loaded without the virtual fields
+class ForkJoinTaskFieldInjectionTest {
+
+  private static void useForkJoinTasks() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      assertThat(pool.submit(() -> "done").get()).isEqualTo("done");
+    } finally {
+      pool.shutdown();
+    }
+
+    List<Integer> list = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+    assertThat(list.parallelStream().map(i -> i * 2).collect(Collectors.toList())).hasSize(100);
+    list.parallelStream().forEach(i -> {});
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "java.util.concurrent.ForkJoinTask$AdaptedCallable",
+        "java.util.stream.ForEachOps$ForEachTask",
+        "java.util.stream.ReduceOps$ReduceTask"
+      })
+  void forkJoinTaskHasVirtualField(String className) throws Exception {
+    useForkJoinTasks();
+
+    Class<?> taskClass = Class.forName(className);
+    assertThat(Arrays.stream(taskClass.getInterfaces()).map(Class::getName))
+        .contains("io.opentelemetry.javaagent.bootstrap.VirtualFieldInstalledMarker");
+    assertThat(Arrays.stream(taskClass.getDeclaredFields()).map(Field::getName))
+        .anyMatch(name -> name.startsWith("__opentelemetry"));
+  }
+}
@@ -93,10 +93,35 @@ public final class OpenTelemetryAgent {
     // after premain execution completes
     JarFile agentJar = new JarFile(javaagentFile, false);
     verifyJarManifestMainClassIsThis(javaagentFile, agentJar);
-    inst.appendToBootstrapClassLoaderSearch(agentJar);
+    // when the agent jar is already on the boot class path (-Xbootclasspath/a), which is needed for
+    // archiving the agent bootstrap classes with class data sharing, it must not be appended again
+    if (isOnBootClassPath(javaagentFile)) {
+      agentJar.close();
+    } else {
+      inst.appendToBootstrapClassLoaderSearch(agentJar);
+    }
     return javaagentFile;
   }
 
+  private static boolean isOnBootClassPath(File javaagentFile) throws IOException {
+    // java 8 has the complete boot class path in sun.boot.class.path, java 9+ only has the
+    // -Xbootclasspath/a entries in jdk.boot.class.path.append
+    String bootClassPath = System.getProperty("jdk.boot.class.path.append");
+    if (bootClassPath == null) {
+      bootClassPath = System.getProperty("sun.boot.class.path");
+    }
+    if (bootClassPath == null || bootClassPath.isEmpty()) {
+      return false;
+    }
+    String agentPath = javaagentFile.getCanonicalPath();
+    for (String entry : bootClassPath.split(File.pathSeparator)) {
+      if (!entry.isEmpty() && new File(entry).getCanonicalPath().equals(agentPath)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   // this protects against the case where someone adds the contents of opentelemetry-javaagent.jar
   // by mistake to their application's "uber.jar"
   //
@@ -22,7 +22,10 @@ import java.security.Permission;
 import java.security.PermissionCollection;
 import java.security.Permissions;
 import java.security.cert.Certificate;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -68,6 +71,9 @@ public class AgentClassLoader extends URLClassLoader {
   private final CodeSource codeSource;
   private final boolean isSecurityManagerSupportEnabled;
   private final Manifest manifest;
+  // maps the names of the entries in the internal jar that have a versioned variant applicable to
+  // the current java version to the versioned entry
+  private final Map<String, JarEntry> versionedJarEntries;
 
   // Used by tests
   public AgentClassLoader(File javaagentFile) {
@@ -110,6 +116,8 @@ public class AgentClassLoader extends URLClassLoader {
     } catch (IOException e) {
       throw new IllegalStateException("Unable to open agent jar", e);
     }
+    versionedJarEntries =
+        MULTI_RELEASE_JAR_ENABLE ? indexVersionedJarEntries() : Collections.emptyMap();
 
     if (!AGENT_INITIALIZER_JAR.isEmpty()) {
       URL url;
@@ -243,11 +251,11 @@ public class AgentClassLoader extends URLClassLoader {
       name += getClassSuffix();
     }
 
-    JarEntry jarEntry = jarFile.getJarEntry(jarEntryPrefix + name);
-    if (MULTI_RELEASE_JAR_ENABLE) {
-      jarEntry = findVersionedJarEntry(jarEntry, name);
+    JarEntry versionedJarEntry = versionedJarEntries.get(name);
+    if (versionedJarEntry != null) {
+      return versionedJarEntry;
     }
-    return jarEntry;
+    return jarFile.getJarEntry(jarEntryPrefix + name);
   }
 
   // suffix appended to class resource names
@@ -256,22 +264,48 @@ public class AgentClassLoader extends URLClassLoader {
     return "data";
   }
 
-  private JarEntry findVersionedJarEntry(JarEntry jarEntry, String name) {
-    // same logic as in JarFile.getVersionedEntry
-    if (!name.startsWith(META_INF)) {
-      // search for versioned entry by looping over possible versions form high to low
-      int version = JAVA_VERSION;
-      while (version >= MIN_MULTI_RELEASE_JAR_JAVA_VERSION) {
-        JarEntry versionedJarEntry =
-            jarFile.getJarEntry(jarEntryPrefix + META_INF_VERSIONS + version + "/" + name);
-        if (versionedJarEntry != null) {
-          return versionedJarEntry;
-        }
-        version--;
+  /**
+   * Scans the internal jar once for versioned entries, so that looking up an entry does not need to
+   * probe every java version from the current one down to 9 like {@code JarFile.getVersionedEntry}
+   * does. The agent jar contains only a handful of versioned entries, while most lookups are for
+   * entries that don't have a versioned variant at all.
+   */
+  private Map<String, JarEntry> indexVersionedJarEntries() {
+    String versionsPrefix = jarEntryPrefix + META_INF_VERSIONS;
+    Map<String, JarEntry> result = new HashMap<>();
+    Map<String, Integer> resultVersions = new HashMap<>();
+    Enumeration<JarEntry> entries = jarFile.entries();
+    while (entries.hasMoreElements()) {
+      JarEntry jarEntry = entries.nextElement();
+      String entryName = jarEntry.getName();
+      if (!entryName.startsWith(versionsPrefix) || jarEntry.isDirectory()) {
+        continue;
+      }
+      int versionEnd = entryName.indexOf('/', versionsPrefix.length());
+      if (versionEnd == -1) {
+        continue;
+      }
+      int version;
+      try {
+        version = Integer.parseInt(entryName.substring(versionsPrefix.length(), versionEnd));
+      } catch (NumberFormatException ignored) {
+        continue;
+      }
+      String name = entryName.substring(versionEnd + 1);
+      // same logic as in JarFile.getVersionedEntry, the highest version that is not greater than
+      // the current java version wins and entries under META-INF are not versioned
+      if (version < MIN_MULTI_RELEASE_JAR_JAVA_VERSION
+          || version > JAVA_VERSION
+          || name.startsWith(META_INF)) {
+        continue;
+      }
+      Integer previousVersion = resultVersions.get(name);
+      if (previousVersion == null || previousVersion < version) {
+        resultVersions.put(name, version);
+        result.put(name, jarEntry);
       }
     }
-
-    return jarEntry;
+    return result;
   }
 
   @Override
@@ -9,7 +9,13 @@ import io.opentelemetry.sdk.internal.JavaVersionSpecific
 import spock.lang.Specification
 
 import java.lang.reflect.Field
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
 import java.util.concurrent.Phaser
+import java.util.jar.Attributes
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+import java.util.jar.Manifest
 
 class AgentClassLoaderTest extends Specification {
 
@@ -84,4 +90,48 @@ class AgentClassLoaderTest extends Specification {
     // expect a versioned class on java 9+
     jdk8 != javaVersionSpecific.getClass().getName().endsWith("Java9VersionSpecific")
   }
+
+  def "multi release jar entries are resolved for the current java version"() {
+    setup:
+    String specificationVersion = System.getProperty("java.specification.version")
+    int javaVersion = specificationVersion.startsWith("1.") ? 8 : specificationVersion as int
+    String nextVersion = "inst/META-INF/versions/" + (javaVersion + 1)
+    File jar = Files.createTempFile("multi-release", ".jar").toFile()
+    writeJar(jar, [
+      "inst/a/Resource.txt"                                 : "base",
+      "inst/META-INF/versions/9/a/Resource.txt"             : "9",
+      "inst/META-INF/versions/11/a/Resource.txt"            : "11",
+      (nextVersion + "/a/Resource.txt")                     : "next",
+      (nextVersion + "/a/Next.txt")                         : "next",
+      "inst/META-INF/services/a.Service"                    : "base",
+      "inst/META-INF/versions/9/META-INF/services/a.Service": "9"
+    ])
+    AgentClassLoader loader = new AgentClassLoader(jar, "inst", false)
+    String expectedResource = javaVersion >= 11 ? "11" : javaVersion >= 9 ? "9" : "base"
+
+    expect:
+    // the highest version that is not greater than the current java version wins
+    loader.findResource("a/Resource.txt").text == expectedResource
+    // entries for a higher java version are ignored
+    loader.findResource("a/Next.txt") == null
+    // entries under META-INF are never versioned
+    loader.findResource("META-INF/services/a.Service").text == "base"
+
+    cleanup:
+    loader?.close()
+    jar.delete()
+  }
+
+  private static void writeJar(File file, Map<String, String> entries) {
+    Manifest manifest = new Manifest()
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0")
+    manifest.getMainAttributes().put(new Attributes.Name("Multi-Release"), "true")
+    new JarOutputStream(new FileOutputStream(file), manifest).withCloseable { jarOutputStream ->
+      entries.each { name, content ->
+        jarOutputStream.putNextEntry(new JarEntry(name))
+        jarOutputStream.write(content.getBytes(StandardCharsets.UTF_8))
+        jarOutputStream.closeEntry()
+      }
+    }
+  }
 }
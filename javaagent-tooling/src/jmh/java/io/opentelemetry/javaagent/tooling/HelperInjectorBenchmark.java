@@ -0,0 +1,84 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Simulates an application server deploying many web applications in parallel: every thread
+ * injects the same helper classes into its own, new class loader.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Threads(8)
+public class HelperInjectorBenchmark {
+
+  private static final List<String> HELPER_CLASS_NAMES =
+      Arrays.asList(
+          Helper1.class.getName(),
+          Helper2.class.getName(),
+          Helper3.class.getName(),
+          Helper4.class.getName());
+
+  @State(Scope.Benchmark)
+  public static class SharedState {
+    final HelperInjector helperInjector =
+        new HelperInjector(
+            "benchmark",
+            HELPER_CLASS_NAMES,
+            Collections.emptyList(),
+            HelperInjectorBenchmark.class.getClassLoader(),
+            null);
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    ClassLoader webApplicationClassLoader;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+      webApplicationClassLoader = new URLClassLoader(new URL[0], null);
+    }
+  }
+
+  @Benchmark
+  public void injectHelpers(SharedState shared, ThreadState thread, Blackhole blackhole) {
+    ClassLoader classLoader = thread.webApplicationClassLoader;
+    blackhole.consume(shared.helperInjector.transform(null, null, classLoader, null, null));
+    for (String className : HELPER_CLASS_NAMES) {
+      blackhole.consume(HelperInjector.loadHelperClass(classLoader, className));
+    }
+  }
+
+  public static class Helper1 {}
+
+  public static class Helper2 {}
+
+  public static class Helper3 {}
+
+  public static class Helper4 {}
+}
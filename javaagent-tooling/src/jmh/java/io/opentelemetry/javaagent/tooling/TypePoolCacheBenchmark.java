@@ -0,0 +1,105 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import io.opentelemetry.javaagent.tooling.muzzle.AgentTooling;
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.bytebuddy.description.type.TypeDefinition;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.pool.TypePool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Simulates type matching in an application server with several web applications: each web
+ * application has its own class loader with the same class path, and the class hierarchy of the
+ * same classes is walked in each of them, like {@code extendsClass} and {@code implementsInterface}
+ * matchers do.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class TypePoolCacheBenchmark {
+
+  private static final String[] CLASS_NAMES = {
+    "net.bytebuddy.description.type.TypeDescription$ForLoadedType",
+    "net.bytebuddy.pool.TypePool$Default$WithLazyResolution",
+    "net.bytebuddy.matcher.ElementMatcher$Junction$Conjunction",
+    "net.bytebuddy.dynamic.ClassFileLocator$ForClassLoader",
+    "io.opentelemetry.sdk.trace.SdkTracerProvider",
+    "io.opentelemetry.sdk.trace.export.BatchSpanProcessor",
+    "java.util.concurrent.ConcurrentHashMap",
+    "java.util.LinkedHashMap",
+  };
+
+  @Param({"1", "10", "100"})
+  public int webApplications;
+
+  private final List<URLClassLoader> classLoaders = new ArrayList<>();
+  private final List<ClassFileLocator> classFileLocators = new ArrayList<>();
+
+  @Setup
+  public void setup() throws MalformedURLException {
+    String[] classPath = System.getProperty("java.class.path").split(File.pathSeparator);
+    URL[] urls = new URL[classPath.length];
+    for (int i = 0; i < classPath.length; i++) {
+      urls[i] = new File(classPath[i]).toURI().toURL();
+    }
+    ClassLoader platformClassLoader = ClassLoader.getSystemClassLoader().getParent();
+    for (int i = 0; i < webApplications; i++) {
+      URLClassLoader classLoader = new URLClassLoader(urls, platformClassLoader);
+      classLoaders.add(classLoader);
+      classFileLocators.add(ClassFileLocator.ForClassLoader.of(classLoader));
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    for (URLClassLoader classLoader : classLoaders) {
+      classLoader.close();
+    }
+  }
+
+  @Benchmark
+  public void resolveHierarchies(Blackhole blackhole) {
+    for (int i = 0; i < classLoaders.size(); i++) {
+      TypePool typePool =
+          AgentTooling.poolStrategy().typePool(classFileLocators.get(i), classLoaders.get(i));
+      for (String className : CLASS_NAMES) {
+        walkHierarchy(typePool.describe(className).resolve(), blackhole);
+      }
+    }
+  }
+
+  private static void walkHierarchy(TypeDefinition type, Blackhole blackhole) {
+    for (TypeDefinition current = type; current != null; current = current.getSuperClass()) {
+      blackhole.consume(current.getActualName());
+      for (TypeDefinition interfaceType : current.getInterfaces()) {
+        walkHierarchy(interfaceType, blackhole);
+      }
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.field;
+
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the virtual field storage of a task that got a field injected, like the JDK task classes
+ * with {@link EarlyFieldInjection}, to the map-backed storage that is used for the classes that
+ * were loaded before the instrumentations were installed. Every operation creates a task, attaches
+ * the context to it, reads it when the task runs and clears it afterwards, like the executors
+ * instrumentation. Run with {@code -prof gc} to compare the allocation per operation.
+ */
+@Fork(3)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class VirtualFieldStorageBenchmark {
+
+  @Benchmark
+  @Threads(1)
+  public Object threads01_setGetClear(StorageState state) {
+    return setGetClear(state);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Object threads08_setGetClear(StorageState state) {
+    return setGetClear(state);
+  }
+
+  private static Object setGetClear(StorageState state) {
+    Task task = new Task();
+    state.set(task, state.context);
+    Object context = state.get(task);
+    state.set(task, null);
+    return context;
+  }
+
+  @State(Scope.Benchmark)
+  public static class StorageState {
+
+    @Param({"field", "weak", "weakStriped"})
+    String storage;
+
+    final Object context = new Object();
+    @Nullable Cache<Object, Object> cache;
+
+    @Setup
+    public void setUp() {
+      if (storage.equals("weak")) {
+        cache = Cache.weak();
+      } else if (storage.equals("weakStriped")) {
+        cache = Cache.weakStriped();
+      }
+    }
+
+    // same as the generated virtual field implementation, which uses the field when the class
+    // implements the field accessor interface
+    @Nullable
+    Object get(Object task) {
+      if (cache == null && task instanceof FieldAccessor) {
+        return ((FieldAccessor) task).getVirtualField();
+      }
+      return cache.get(task);
+    }
+
+    void set(Object task, @Nullable Object value) {
+      if (cache == null && task instanceof FieldAccessor) {
+        ((FieldAccessor) task).setVirtualField(value);
+      } else if (value == null) {
+        cache.remove(task);
+      } else {
+        cache.put(task, value);
+      }
+    }
+  }
+
+  interface FieldAccessor {
+    @Nullable
+    Object getVirtualField();
+
+    void setVirtualField(@Nullable Object value);
+  }
+
+  static final class Task implements Runnable, FieldAccessor {
+    @Nullable private volatile Object virtualField;
+
+    @Override
+    public void run() {}
+
+    @Override
+    @Nullable
+    public Object getVirtualField() {
+      return virtualField;
+    }
+
+    @Override
+    public void setVirtualField(@Nullable Object value) {
+      virtualField = value;
+    }
+  }
+}
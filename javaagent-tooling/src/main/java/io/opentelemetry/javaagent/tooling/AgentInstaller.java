@@ -12,7 +12,9 @@ import static io.opentelemetry.javaagent.tooling.Utils.getResourceName;
 import static java.util.Arrays.asList;
 import static java.util.logging.Level.FINE;
 import static java.util.logging.Level.SEVERE;
+import static java.util.logging.Level.WARNING;
 import static net.bytebuddy.matcher.ElementMatchers.any;
+import static net.bytebuddy.matcher.ElementMatchers.none;
 
 import io.opentelemetry.context.Context;
 import io.opentelemetry.context.ContextStorage;
@@ -35,6 +37,7 @@ import io.opentelemetry.javaagent.tooling.bootstrap.BootstrapPackagesBuilderImpl
 import io.opentelemetry.javaagent.tooling.bootstrap.BootstrapPackagesConfigurer;
 import io.opentelemetry.javaagent.tooling.config.ConfigPropertiesBridge;
 import io.opentelemetry.javaagent.tooling.config.EarlyInitAgentConfig;
+import io.opentelemetry.javaagent.tooling.field.EarlyFieldInjection;
 import io.opentelemetry.javaagent.tooling.ignore.IgnoredClassLoadersMatcher;
 import io.opentelemetry.javaagent.tooling.ignore.IgnoredTypesBuilderImpl;
 import io.opentelemetry.javaagent.tooling.ignore.IgnoredTypesMatcher;
@@ -44,6 +47,7 @@ import io.opentelemetry.sdk.autoconfigure.AutoConfiguredOpenTelemetrySdk;
 import io.opentelemetry.sdk.autoconfigure.SdkAutoconfigureAccess;
 import io.opentelemetry.sdk.autoconfigure.internal.AutoConfigureUtil;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import java.io.IOException;
 import java.lang.instrument.Instrumentation;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -98,8 +102,14 @@ public class AgentInstaller {
     logVersionInfo();
     if (earlyConfig.getBoolean(JAVAAGENT_ENABLED_CONFIG, true)) {
       setupUnsafe(inst);
+      ResettableClassFileTransformer earlyFieldInjection =
+          installEarlyFieldInjection(inst, earlyConfig);
       List<AgentListener> agentListeners = loadOrdered(AgentListener.class, extensionClassLoader);
       installBytebuddyAgent(inst, extensionClassLoader, agentListeners);
+      if (earlyFieldInjection != null) {
+        // the instrumentations inject the fields from now on
+        earlyFieldInjection.reset(inst, AgentBuilder.RedefinitionStrategy.DISABLED);
+      }
     } else {
       logger.fine("Tracing is disabled, not installing instrumentations.");
     }
@@ -124,6 +134,7 @@ public class AgentInstaller {
     ConfigProperties sdkConfig = AutoConfigureUtil.getConfig(autoConfiguredSdk);
     AgentInstrumentationConfig.internalInitializeConfig(new ConfigPropertiesBridge(sdkConfig));
     copyNecessaryConfigToSystemProperties(sdkConfig);
+    TransformationCache.initialize(sdkConfig);
 
     setBootstrapPackages(sdkConfig, extensionClassLoader);
     ConfiguredResourceAttributesHolder.initialize(
@@ -134,7 +145,7 @@ public class AgentInstaller {
       agentListener.beforeAgent(autoConfiguredSdk);
     }
 
-    AgentBuilder agentBuilder =
+    AgentBuilder.RedefinitionListenable redefinitionListenable =
         new AgentBuilder.Default(
                 // default method graph compiler inspects the class hierarchy, we don't need it, so
                 // we use a simpler and faster strategy instead
@@ -145,7 +156,14 @@ public class AgentInstaller {
             .with(AgentBuilder.TypeStrategy.Default.DECORATE)
             .disableClassFormatChanges()
             .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+            .with(RetransformationScheduler.batchAllocator(sdkConfig))
             .with(new RedefinitionDiscoveryStrategy())
+            .with(RetransformationScheduler.listener(sdkConfig));
+    if (logger.isLoggable(FINE)) {
+      redefinitionListenable = redefinitionListenable.with(new RedefinitionLoggingListener());
+    }
+    AgentBuilder agentBuilder =
+        redefinitionListenable
             .with(AgentBuilder.DescriptionStrategy.Default.POOL_ONLY)
             .with(AgentTooling.poolStrategy())
             .with(new ClassLoadListener())
@@ -155,15 +173,15 @@ public class AgentInstaller {
       agentBuilder = agentBuilder.with(new ExposeAgentBootstrapListener(inst));
     }
 
+    if (TransformationCache.get() != null) {
+      agentBuilder = agentBuilder.with(TransformationCache.listener());
+    }
+    agentBuilder = agentBuilder.with(AgentSelfMetrics.listener());
+
     agentBuilder = configureIgnoredTypes(sdkConfig, extensionClassLoader, agentBuilder);
 
     if (logger.isLoggable(FINE)) {
-      agentBuilder =
-          agentBuilder
-              .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
-              .with(new RedefinitionDiscoveryStrategy())
-              .with(new RedefinitionLoggingListener())
-              .with(new TransformLoggingListener());
+      agentBuilder = agentBuilder.with(new TransformLoggingListener());
     }
 
     int numberOfLoadedExtensions = 0;
@@ -199,8 +217,49 @@ public class AgentInstaller {
     runAfterAgentListeners(agentListeners, autoConfiguredSdk);
   }
 
+  /**
+   * Installs the transformer that injects virtual fields into the JDK task classes that are loaded
+   * while the SDK is created, see {@link EarlyFieldInjection}. The agent configuration isn't
+   * initialized yet, so this must not use {@link AgentTooling}.
+   */
+  @Nullable
+  private static ResettableClassFileTransformer installEarlyFieldInjection(
+      Instrumentation inst, EarlyInitAgentConfig earlyConfig) {
+    if (!EarlyFieldInjection.isEnabled(earlyConfig)) {
+      return null;
+    }
+    AgentBuilder agentBuilder =
+        new AgentBuilder.Default()
+            .with(AgentBuilder.TypeStrategy.Default.DECORATE)
+            .disableClassFormatChanges()
+            .with(AgentBuilder.DescriptionStrategy.Default.POOL_ONLY)
+            // the JDK classes are ignored by default
+            .ignore(none());
+    if (JavaModule.isSupported()) {
+      agentBuilder = agentBuilder.with(new ExposeAgentBootstrapListener(inst));
+    }
+    try {
+      return EarlyFieldInjection.extend(agentBuilder, inst).installOn(inst);
+    } catch (IOException e) {
+      logger.log(WARNING, "Unable to inject the virtual fields during startup", e);
+      return null;
+    }
+  }
+
   private static void copyNecessaryConfigToSystemProperties(ConfigProperties config) {
-    for (String property : asList("otel.instrumentation.experimental.span-suppression-strategy")) {
+    for (String property :
+        asList(
+            "otel.instrumentation.experimental.span-suppression-strategy",
+            "otel.instrumentation.experimental.instrumenter.reuse-operation-buffers",
+            "otel.instrumentation.experimental.cache.bounded-policy",
+            "otel.instrumentation.experimental.db-statement-sanitizer.cache-max-weight",
+            "otel.instrumentation.experimental.db-statement-sanitizer.normalize-lists",
+            "otel.instrumentation.experimental.db-statement-sanitizer.max-statement-length",
+            "otel.instrumentation.experimental.db-statement-sanitizer.hash-keys",
+            AgentSelfMetrics.ENABLED_CONFIG,
+            "otel.javaagent.experimental.instrumentation-profiler.enabled",
+            "otel.javaagent.experimental.instrumentation-profiler.sampling-interval",
+            "otel.javaagent.experimental.instrumentation-profiler.report-interval")) {
       String value = config.getString(property);
       if (value != null) {
         System.setProperty(property, value);
@@ -0,0 +1,224 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableDoubleMeasurement;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import io.opentelemetry.javaagent.tooling.instrumentation.MuzzleFailureCounter;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.utility.JavaModule;
+
+/**
+ * Measures the cost of the agent itself: the number of classes that were transformed, the time
+ * spent matching and transforming classes, per instrumentation and in total, and the number of
+ * muzzle failures. All counts are kept in {@link LongAdder}s and are only read when the metrics are
+ * collected, so they are always kept; they are only reported when {@code
+ * otel.javaagent.experimental.self-metrics.enabled} is set.
+ *
+ * <p>The transformers of the instrumentations only build up a description of the transformation,
+ * the class is generated after all of them ran. The time of a transformation is therefore
+ * attributed in full to every instrumentation that transformed the class.
+ */
+public final class AgentSelfMetrics {
+
+  static final String ENABLED_CONFIG = "otel.javaagent.experimental.self-metrics.enabled";
+
+  private static final String INSTRUMENTATION_SCOPE = "io.opentelemetry.javaagent";
+  private static final AttributeKey<String> INSTRUMENTATION_NAME =
+      AttributeKey.stringKey("instrumentation.name");
+
+  private static final LongAdder transformedClasses = new LongAdder();
+  private static final LongAdder transformationNanos = new LongAdder();
+  private static final ConcurrentMap<String, InstrumentationStats> instrumentationStats =
+      new ConcurrentHashMap<>();
+  private static final ThreadLocal<TransformationState> transformationState =
+      ThreadLocal.withInitial(TransformationState::new);
+
+  /** Returns the listener that measures the transformation of every class. */
+  static AgentBuilder.Listener listener() {
+    return new TransformationListener();
+  }
+
+  /**
+   * Returns a transformer that attributes the transformation of the classes it is applied to to
+   * the given instrumentation. The transformer doesn't change the classes.
+   */
+  public static AgentBuilder.Transformer transformer(String instrumentationName) {
+    return new RecordingTransformer(
+        instrumentationStats.computeIfAbsent(
+            instrumentationName, k -> new InstrumentationStats()));
+  }
+
+  /** Registers observers for the agent self metrics and returns them so that they can be closed. */
+  static List<AutoCloseable> registerObservers(OpenTelemetry openTelemetry) {
+    Meter meter = openTelemetry.getMeterProvider().get(INSTRUMENTATION_SCOPE);
+    ObservableLongMeasurement classes =
+        meter
+            .counterBuilder("otel.javaagent.classes.transformed")
+            .setUnit("{class}")
+            .setDescription("The number of classes transformed by the agent.")
+            .buildObserver();
+    ObservableDoubleMeasurement duration =
+        meter
+            .counterBuilder("otel.javaagent.transformation.duration")
+            .ofDoubles()
+            .setUnit("s")
+            .setDescription("The time spent matching and transforming classes.")
+            .buildObserver();
+    ObservableLongMeasurement instrumentationClasses =
+        meter
+            .counterBuilder("otel.javaagent.instrumentation.classes.transformed")
+            .setUnit("{class}")
+            .setDescription("The number of classes transformed by the instrumentation.")
+            .buildObserver();
+    ObservableDoubleMeasurement instrumentationDuration =
+        meter
+            .counterBuilder("otel.javaagent.instrumentation.transformation.duration")
+            .ofDoubles()
+            .setUnit("s")
+            .setDescription(
+                "The time spent transforming the classes matched by the instrumentation.")
+            .buildObserver();
+    ObservableLongMeasurement muzzleFailures =
+        meter
+            .counterBuilder("otel.javaagent.muzzle.failures")
+            .setUnit("{failure}")
+            .setDescription(
+                "The number of times an instrumentation was not applied because of muzzle.")
+            .buildObserver();
+    return Collections.singletonList(
+        meter.batchCallback(
+            () -> {
+              classes.record(transformedClasses.sum());
+              duration.record(toSeconds(transformationNanos.sum()));
+              instrumentationStats.forEach(
+                  (instrumentationName, stats) -> {
+                    Attributes attributes =
+                        Attributes.of(INSTRUMENTATION_NAME, instrumentationName);
+                    instrumentationClasses.record(stats.classes.sum(), attributes);
+                    instrumentationDuration.record(toSeconds(stats.nanos.sum()), attributes);
+                  });
+              muzzleFailures.record(MuzzleFailureCounter.getTotal());
+            },
+            classes,
+            duration,
+            instrumentationClasses,
+            instrumentationDuration,
+            muzzleFailures));
+  }
+
+  // Visible for testing
+  static long getTransformedClassCount() {
+    return transformedClasses.sum();
+  }
+
+  // Visible for testing
+  @Nullable
+  static InstrumentationStats getInstrumentationStats(String instrumentationName) {
+    return instrumentationStats.get(instrumentationName);
+  }
+
+  private static double toSeconds(long nanos) {
+    return nanos / 1_000_000_000.0;
+  }
+
+  // Visible for testing
+  static final class InstrumentationStats {
+    final LongAdder classes = new LongAdder();
+    final LongAdder nanos = new LongAdder();
+  }
+
+  private static final class TransformationState {
+    // classes that are loaded while a class is being transformed are transformed by the same
+    // thread, only the outermost transformation is measured
+    int depth;
+    long startNanos;
+    final List<InstrumentationStats> instrumentations = new ArrayList<>();
+  }
+
+  // Visible for testing
+  static final class TransformationListener extends AgentBuilder.Listener.Adapter {
+
+    @Override
+    public void onDiscovery(
+        String typeName, @Nullable ClassLoader classLoader, JavaModule module, boolean loaded) {
+      TransformationState state = transformationState.get();
+      if (state.depth++ == 0) {
+        state.startNanos = System.nanoTime();
+        state.instrumentations.clear();
+      }
+    }
+
+    @Override
+    public void onTransformation(
+        TypeDescription typeDescription,
+        @Nullable ClassLoader classLoader,
+        JavaModule module,
+        boolean loaded,
+        DynamicType dynamicType) {
+      transformedClasses.increment();
+    }
+
+    @Override
+    public void onComplete(
+        String typeName, @Nullable ClassLoader classLoader, JavaModule module, boolean loaded) {
+      TransformationState state = transformationState.get();
+      // the listener may be installed while a class is being transformed
+      if (state.depth == 0 || --state.depth != 0) {
+        return;
+      }
+      long nanos = System.nanoTime() - state.startNanos;
+      transformationNanos.add(nanos);
+      List<InstrumentationStats> instrumentations = state.instrumentations;
+      for (int i = 0; i < instrumentations.size(); i++) {
+        InstrumentationStats stats = instrumentations.get(i);
+        stats.classes.increment();
+        stats.nanos.add(nanos);
+      }
+      instrumentations.clear();
+    }
+  }
+
+  private static final class RecordingTransformer implements AgentBuilder.Transformer {
+
+    private final InstrumentationStats stats;
+
+    RecordingTransformer(InstrumentationStats stats) {
+      this.stats = stats;
+    }
+
+    @Override
+    public DynamicType.Builder<?> transform(
+        DynamicType.Builder<?> builder,
+        TypeDescription typeDescription,
+        @Nullable ClassLoader classLoader,
+        @Nullable JavaModule module,
+        @Nullable ProtectionDomain protectionDomain) {
+      TransformationState state = transformationState.get();
+      // every type instrumentation of a module applies the transformer
+      if (state.depth != 0 && !state.instrumentations.contains(stats)) {
+        state.instrumentations.add(stats);
+      }
+      return builder;
+    }
+  }
+
+  private AgentSelfMetrics() {}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * Describes the classes that are visible to a class loader: its class path and the class paths of
+ * its parents, including the size and the modification time of the class path entries that are
+ * files. Used as part of the keys of the caches that are persisted across restarts, so that their
+ * entries are not used after the application changed.
+ *
+ * <p>The content of a directory can't be described without walking it, class loaders with a
+ * directory on their class path or on the class path of their parents have an {@link #UNKNOWN}
+ * fingerprint.
+ */
+public final class ClassPathFingerprint {
+
+  /** Returned for class loaders whose class path can't be determined. */
+  public static final String UNKNOWN = "";
+
+  private static final String BOOTSTRAP = "bootstrap";
+
+  private static final Cache<ClassLoader, String> fingerprints = Cache.weak();
+
+  /**
+   * Returns the fingerprint of the class path of the given class loader, or {@link #UNKNOWN} when
+   * it can't be determined.
+   */
+  public static String of(@Nullable ClassLoader classLoader) {
+    if (classLoader == null) {
+      return BOOTSTRAP;
+    }
+    return fingerprints.computeIfAbsent(classLoader, ClassPathFingerprint::compute);
+  }
+
+  /**
+   * Returns the fingerprint of the extension jars at the given locations, the value of {@code
+   * otel.javaagent.extensions}: the paths, the sizes and the modification times of the jars,
+   * including the jars in the configured directories.
+   */
+  public static String ofExtensions(@Nullable String locations) {
+    StringBuilder fingerprint = new StringBuilder("extensions");
+    if (locations == null) {
+      return fingerprint.toString();
+    }
+    for (String location : locations.split(",")) {
+      if (location.isEmpty()) {
+        continue;
+      }
+      File file = new File(location);
+      File[] jars = file.isDirectory() ? file.listFiles(ClassPathFingerprint::isJar) : null;
+      if (jars == null) {
+        appendFile(fingerprint.append(';'), location);
+        continue;
+      }
+      Arrays.sort(jars);
+      for (File jar : jars) {
+        appendFile(fingerprint.append(';'), jar.getPath());
+      }
+    }
+    return fingerprint.toString();
+  }
+
+  private static boolean isJar(File file) {
+    return file.isFile() && file.getName().endsWith(".jar");
+  }
+
+  private static String compute(ClassLoader classLoader) {
+    ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+    if (classLoader == systemClassLoader) {
+      StringBuilder fingerprint = new StringBuilder("system");
+      for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+        if (!appendFile(fingerprint.append(';'), entry)) {
+          return UNKNOWN;
+        }
+      }
+      return fingerprint.toString();
+    }
+    if (classLoader == systemClassLoader.getParent()) {
+      return "platform";
+    }
+    if (!(classLoader instanceof URLClassLoader)) {
+      return UNKNOWN;
+    }
+    // not using the cache for the parents, computeIfAbsent must not be called recursively
+    String parentFingerprint =
+        classLoader.getParent() == null ? BOOTSTRAP : compute(classLoader.getParent());
+    if (parentFingerprint.equals(UNKNOWN)) {
+      return UNKNOWN;
+    }
+    StringBuilder fingerprint = new StringBuilder(classLoader.getClass().getName());
+    for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+      if (!appendUrl(fingerprint.append(';'), url)) {
+        return UNKNOWN;
+      }
+    }
+    return fingerprint.append('|').append(parentFingerprint).toString();
+  }
+
+  // returns false when the url is a directory
+  private static boolean appendUrl(StringBuilder fingerprint, URL url) {
+    fingerprint.append(url);
+    String location = url.toString();
+    // nested jars, e.g. jar:file:/app.jar!/BOOT-INF/lib/library.jar!/, change together with the
+    // outer jar
+    if (location.startsWith("jar:")) {
+      int end = location.indexOf("!/");
+      location = location.substring("jar:".length(), end != -1 ? end : location.length());
+    }
+    if (location.startsWith("file:")) {
+      try {
+        return appendFileStats(fingerprint, new File(new URI(location)));
+      } catch (URISyntaxException | IllegalArgumentException ignored) {
+        // the url is still part of the fingerprint
+      }
+    }
+    return true;
+  }
+
+  // returns false when the path is a directory
+  private static boolean appendFile(StringBuilder fingerprint, String path) {
+    fingerprint.append(path);
+    return appendFileStats(fingerprint, new File(path));
+  }
+
+  private static boolean appendFileStats(StringBuilder fingerprint, File file) {
+    // the modification time of a directory doesn't change when a file that isn't directly in it
+    // changes
+    if (file.isDirectory()) {
+      return false;
+    }
+    if (file.isFile()) {
+      fingerprint.append(',').append(file.length()).append(',').append(file.lastModified());
+    }
+    return true;
+  }
+
+  private ClassPathFingerprint() {}
+}
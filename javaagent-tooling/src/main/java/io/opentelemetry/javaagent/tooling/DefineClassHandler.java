@@ -10,6 +10,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.objectweb.asm.ClassReader;
 
 public class DefineClassHandler implements Handler {
@@ -60,6 +61,12 @@ public class DefineClassHandler implements Handler {
       context.failedClassDotName = className;
     }
 
+    TransformationCache transformationCache = TransformationCache.get();
+    if (transformationCache != null && className != null) {
+      context.transformationCacheKey =
+          transformationCache.key(classLoader, className, classBytes, offset, length);
+    }
+
     return context;
   }
 
@@ -106,12 +113,22 @@ public class DefineClassHandler implements Handler {
     return superNames == null ? Collections.emptySet() : superNames;
   }
 
+  /**
+   * Returns the {@link TransformationCache} key of the class that is currently being defined, or
+   * {@code null} when the transformation cache is not enabled or the class can't be cached.
+   */
+  @Nullable
+  static TransformationCache.Key getTransformationCacheKey() {
+    return defineClassContext.get().transformationCacheKey;
+  }
+
   private static class DefineClassContextImpl implements DefineClassContext {
     private static final DefineClassContextImpl NOP = new DefineClassContextImpl();
 
     private final DefineClassContextImpl previous;
     String failedClassDotName;
     Set<String> superDotNames;
+    TransformationCache.Key transformationCacheKey;
 
     private DefineClassContextImpl() {
       previous = null;
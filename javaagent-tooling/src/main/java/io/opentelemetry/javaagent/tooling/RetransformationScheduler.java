@@ -0,0 +1,176 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import static java.util.logging.Level.FINE;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import net.bytebuddy.agent.builder.AgentBuilder.RedefinitionStrategy;
+
+/**
+ * Controls how classes that were loaded before the agent was installed are retransformed.
+ *
+ * <p>Retransforming classes stops the JVM at a safepoint, by default ByteBuddy retransforms all
+ * matched classes at once which causes a long pause on large applications (e.g. when the agent is
+ * attached at runtime). Instead, the classes are retransformed in batches of a configurable size,
+ * optionally pausing between the batches. The pauses run on the thread that installs the agent, so
+ * their total is capped. Classes that are used by the most common instrumentations (executors,
+ * servlets, http clients) are retransformed first, so that they are instrumented as early as
+ * possible.
+ */
+final class RetransformationScheduler {
+
+  private static final Logger logger = Logger.getLogger(RetransformationScheduler.class.getName());
+
+  private static final String BATCH_SIZE_CONFIG =
+      "otel.javaagent.experimental.retransformation.batch-size";
+  private static final String BATCH_DELAY_CONFIG =
+      "otel.javaagent.experimental.retransformation.batch-delay";
+  private static final String MAX_PAUSE_CONFIG =
+      "otel.javaagent.experimental.retransformation.max-pause";
+  private static final String METRICS_CONFIG = "otel.javaagent.experimental.self-metrics.enabled";
+
+  private static final int DEFAULT_BATCH_SIZE = 100;
+  private static final Duration DEFAULT_MAX_PAUSE = Duration.ofSeconds(10);
+
+  private static final String[] PRIORITY_CLASS_NAMES = {"java.lang.Thread"};
+
+  private static final String[] PRIORITY_PREFIXES = {
+    "java.util.concurrent.",
+    "java.lang.Thread$",
+    "java.net.",
+    "javax.servlet.",
+    "jakarta.servlet.",
+    "org.apache.http.",
+    "org.apache.hc.",
+    "okhttp3.",
+    "io.netty.",
+  };
+
+  static RedefinitionStrategy.BatchAllocator batchAllocator(ConfigProperties config) {
+    return new PrioritizingBatchAllocator(config.getInt(BATCH_SIZE_CONFIG, DEFAULT_BATCH_SIZE));
+  }
+
+  static RedefinitionStrategy.Listener listener(ConfigProperties config) {
+    Duration batchDelay = config.getDuration(BATCH_DELAY_CONFIG, Duration.ZERO);
+    Duration maxPause = config.getDuration(MAX_PAUSE_CONFIG, DEFAULT_MAX_PAUSE);
+    DoubleHistogram batchDuration = null;
+    if (config.getBoolean(METRICS_CONFIG, false)) {
+      batchDuration =
+          GlobalOpenTelemetry.get()
+              .getMeter("io.opentelemetry.javaagent")
+              .histogramBuilder("otel.javaagent.retransformation.duration")
+              .setUnit("s")
+              .setDescription("Duration of retransforming a batch of already loaded classes.")
+              .build();
+    }
+    return new SchedulingListener(batchDelay.toMillis(), maxPause.toMillis(), batchDuration);
+  }
+
+  // Visible for testing
+  static int priority(Class<?> type) {
+    String name = type.getName();
+    for (String className : PRIORITY_CLASS_NAMES) {
+      if (name.equals(className)) {
+        return 0;
+      }
+    }
+    for (String prefix : PRIORITY_PREFIXES) {
+      if (name.startsWith(prefix)) {
+        return 0;
+      }
+    }
+    return 1;
+  }
+
+  // Visible for testing
+  static class PrioritizingBatchAllocator implements RedefinitionStrategy.BatchAllocator {
+
+    private final int batchSize;
+
+    PrioritizingBatchAllocator(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public Iterable<? extends List<Class<?>>> batch(List<Class<?>> types) {
+      List<Class<?>> sorted = new ArrayList<>(types);
+      // the sort is stable, classes with the same priority keep their order
+      sorted.sort(Comparator.comparingInt(RetransformationScheduler::priority));
+      if (batchSize <= 0) {
+        return RedefinitionStrategy.BatchAllocator.ForTotal.INSTANCE.batch(sorted);
+      }
+      return RedefinitionStrategy.BatchAllocator.ForFixedSize.ofSize(batchSize).batch(sorted);
+    }
+  }
+
+  // Visible for testing
+  static class SchedulingListener extends RedefinitionStrategy.Listener.Adapter {
+
+    private final long batchDelayMillis;
+    @Nullable private final DoubleHistogram batchDuration;
+    // the pause that is left for the remaining batches, the batches are retransformed without
+    // pausing once it is spent
+    private long remainingPauseMillis;
+    // batches are retransformed sequentially by the thread that installs the agent, 0 when no
+    // batch is being retransformed
+    private long batchStart;
+
+    SchedulingListener(
+        long batchDelayMillis, long maxPauseMillis, @Nullable DoubleHistogram batchDuration) {
+      this.batchDelayMillis = batchDelayMillis;
+      this.remainingPauseMillis = maxPauseMillis;
+      this.batchDuration = batchDuration;
+    }
+
+    @Override
+    public void onBatch(int index, List<Class<?>> batch, List<Class<?>> types) {
+      recordBatchEnd();
+      if (index > 0 && batchDelayMillis > 0 && remainingPauseMillis > 0) {
+        long pauseMillis = Math.min(batchDelayMillis, remainingPauseMillis);
+        remainingPauseMillis -= pauseMillis;
+        try {
+          Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          remainingPauseMillis = 0;
+        }
+      }
+      batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void onComplete(
+        int amount, List<Class<?>> types, Map<List<Class<?>>, Throwable> failures) {
+      recordBatchEnd();
+      logger.log(
+          FINE, "Retransformed {0} classes in {1} batches", new Object[] {types.size(), amount});
+    }
+
+    // Visible for testing
+    long getRemainingPauseMillis() {
+      return remainingPauseMillis;
+    }
+
+    private void recordBatchEnd() {
+      if (batchDuration != null && batchStart != 0) {
+        batchDuration.record((System.nanoTime() - batchStart) / 1_000_000_000.0);
+      }
+      batchStart = 0;
+    }
+  }
+
+  private RetransformationScheduler() {}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import com.google.auto.service.AutoService;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.instrumentation.api.internal.InstrumentationProfiler;
+import io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics;
+import io.opentelemetry.instrumentation.api.internal.cache.CacheMetrics;
+import io.opentelemetry.javaagent.extension.AgentListener;
+import io.opentelemetry.sdk.autoconfigure.AutoConfiguredOpenTelemetrySdk;
+import io.opentelemetry.sdk.autoconfigure.internal.AutoConfigureUtil;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An {@link AgentListener} that reports the metrics of the agent itself through the agent's {@link
+ * OpenTelemetry} instance: the class transformations and muzzle failures, the spans started and
+ * ended by each instrumentation, and the hit, miss and eviction counts of the caches used by the
+ * instrumentation API (e.g. the SQL statement sanitizer cache). When the instrumentation profiler
+ * is enabled its sampled durations are reported too.
+ *
+ * <p>The cache metrics alone can also be enabled with {@code
+ * otel.javaagent.experimental.cache-metrics.enabled}.
+ */
+@AutoService(AgentListener.class)
+public class SelfMetricsInstaller implements AgentListener {
+
+  private static final Logger logger = Logger.getLogger(SelfMetricsInstaller.class.getName());
+
+  @Override
+  public void afterAgent(AutoConfiguredOpenTelemetrySdk autoConfiguredSdk) {
+    ConfigProperties config = AutoConfigureUtil.getConfig(autoConfiguredSdk);
+    boolean selfMetricsEnabled = config.getBoolean(AgentSelfMetrics.ENABLED_CONFIG, false);
+    if (!selfMetricsEnabled
+        && !config.getBoolean("otel.javaagent.experimental.cache-metrics.enabled", false)) {
+      return;
+    }
+
+    OpenTelemetry openTelemetry = GlobalOpenTelemetry.get();
+    List<AutoCloseable> observables = new ArrayList<>();
+    observables.addAll(CacheMetrics.registerObservers(openTelemetry));
+    if (selfMetricsEnabled) {
+      observables.addAll(SupportabilityMetrics.instance().registerObservers(openTelemetry));
+      observables.addAll(AgentSelfMetrics.registerObservers(openTelemetry));
+      observables.addAll(InstrumentationProfiler.instance().registerObservers(openTelemetry));
+    }
+    Thread cleanupTelemetry =
+        new Thread(
+            () -> {
+              for (AutoCloseable observable : observables) {
+                try {
+                  observable.close();
+                } catch (Exception e) {
+                  logger.log(Level.FINE, "Failed to close self metrics observer", e);
+                }
+              }
+            });
+    Runtime.getRuntime().addShutdownHook(cleanupTelemetry);
+  }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+
+import io.opentelemetry.javaagent.tooling.config.AgentConfig;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.utility.JavaModule;
+
+/**
+ * Remembers across restarts which classes were not transformed by any instrumentation, so that
+ * when the same application is started again (e.g. from the same immutable container image) the
+ * agent can skip type matching for them.
+ *
+ * <p>Only the negative decision is cached. Transforming a class has side effects besides producing
+ * the woven bytecode (helper classes are injected into the class loader, virtual fields are set
+ * up, muzzle checks are run), so classes that are transformed always go through the regular
+ * transformation.
+ *
+ * <p>A class is identified by a hash of its name, its bytes and the {@link ClassPathFingerprint} of
+ * the class loader that defines it. Classes defined by class loaders whose class path can't be
+ * determined, or contains a directory, are not cached: a class that is unchanged itself may be
+ * transformed once a library it depends on changes. The cache file name contains a hash of the
+ * agent version and the agent configuration, so changing either of them starts with an empty
+ * cache. The extensions are accounted for by the size and the modification time of their jars.
+ */
+public final class TransformationCache {
+
+  private static final Logger logger = Logger.getLogger(TransformationCache.class.getName());
+
+  private static final String DIRECTORY_CONFIG =
+      "otel.javaagent.experimental.transformation-cache.directory";
+
+  private static final int MAGIC = 0x4f544331;
+
+  private static final ThreadLocal<MessageDigest> digest =
+      ThreadLocal.withInitial(TransformationCache::newDigest);
+
+  @Nullable private static volatile TransformationCache instance;
+
+  private final Path file;
+  // entries read from the cache file
+  private final Set<Key> persisted = ConcurrentHashMap.newKeySet();
+  // entries that were used during this run, only these are written back to the cache file so that
+  // entries for classes that are no longer loaded are eventually dropped
+  private final Set<Key> current = ConcurrentHashMap.newKeySet();
+
+  /** Creates the cache when it is enabled by the configuration, and loads its content. */
+  static void initialize(ConfigProperties config) {
+    String directory = config.getString(DIRECTORY_CONFIG);
+    if (directory == null || directory.isEmpty()) {
+      return;
+    }
+
+    String fingerprint = fingerprint(config, AgentConfig.getConfiguredPropertyNames());
+    Path file = Paths.get(directory).resolve("transformation-cache-" + fingerprint + ".bin");
+    TransformationCache cache = new TransformationCache(file);
+    cache.load();
+    instance = cache;
+    Runtime.getRuntime().addShutdownHook(new Thread(cache::persist, "otel-transformation-cache"));
+  }
+
+  /** Returns the cache, or {@code null} when it is not enabled. */
+  @Nullable
+  static TransformationCache get() {
+    return instance;
+  }
+
+  /**
+   * Returns whether the class with the given name, which is currently being defined, is known not
+   * to be transformed by any instrumentation.
+   */
+  public static boolean isKnownUnmatched(String className) {
+    TransformationCache cache = instance;
+    if (cache == null) {
+      return false;
+    }
+    Key key = DefineClassHandler.getTransformationCacheKey();
+    return key != null && key.className.equals(className) && cache.isUnmatched(key);
+  }
+
+  static AgentBuilder.Listener listener() {
+    return new RecordingListener();
+  }
+
+  // Visible for testing
+  TransformationCache(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Returns the key identifying the class that is being defined, or {@code null} when the class
+   * can't be cached.
+   */
+  @Nullable
+  Key key(
+      @Nullable ClassLoader classLoader,
+      String className,
+      byte[] classBytes,
+      int offset,
+      int length) {
+    String classPath = ClassPathFingerprint.of(classLoader);
+    if (classPath.equals(ClassPathFingerprint.UNKNOWN)) {
+      return null;
+    }
+    MessageDigest md = digest.get();
+    md.update(classPath.getBytes(StandardCharsets.UTF_8));
+    md.update((byte) 0);
+    md.update(className.getBytes(StandardCharsets.UTF_8));
+    md.update((byte) 0);
+    md.update(classBytes, offset, length);
+    byte[] hash = md.digest();
+    return new Key(toLong(hash, 0), toLong(hash, 8), className);
+  }
+
+  boolean isUnmatched(Key key) {
+    if (current.contains(key)) {
+      return true;
+    }
+    if (persisted.contains(key)) {
+      current.add(key);
+      return true;
+    }
+    return false;
+  }
+
+  void recordUnmatched(Key key) {
+    current.add(key);
+  }
+
+  // Visible for testing
+  void load() {
+    if (!Files.exists(file)) {
+      return;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        logger.log(WARNING, "Ignoring invalid transformation cache file {0}", file);
+        return;
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        persisted.add(new Key(in.readLong(), in.readLong(), ""));
+      }
+      logger.log(
+          FINE, "Loaded {0} entries from transformation cache {1}", new Object[] {count, file});
+    } catch (IOException e) {
+      persisted.clear();
+      logger.log(WARNING, "Failed to read transformation cache file " + file, e);
+    }
+  }
+
+  // Visible for testing
+  void persist() {
+    // nothing new was recorded and no entry became stale
+    if (current.isEmpty()
+        || (current.size() == persisted.size() && persisted.containsAll(current))) {
+      return;
+    }
+    Key[] keys = current.toArray(new Key[0]);
+    try {
+      Files.createDirectories(file.getParent());
+      Path tmp = Files.createTempFile(file.getParent(), "transformation-cache", ".tmp");
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(keys.length);
+        for (Key key : keys) {
+          out.writeLong(key.hash1);
+          out.writeLong(key.hash2);
+        }
+      }
+      try {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      logger.log(WARNING, "Failed to write transformation cache file " + file, e);
+    }
+  }
+
+  /**
+   * Returns a hash of everything besides the classes themselves that decides whether a class is
+   * transformed: the agent version, the resolved values of the given agent configuration properties
+   * (including the ones from the configuration file and the customizers) and the extension jars.
+   */
+  // Visible for testing
+  static String fingerprint(ConfigProperties config, Iterable<String> propertyNames) {
+    Map<String, String> values = new TreeMap<>();
+    values.put("agent.version", String.valueOf(AgentVersion.VERSION));
+    values.put("java.vm.version", System.getProperty("java.vm.version"));
+    values.put(
+        "extensions",
+        ClassPathFingerprint.ofExtensions(
+            config.getString(ExtensionClassLoader.EXTENSIONS_CONFIG)));
+    for (String name : propertyNames) {
+      values.put(name, config.getString(name));
+    }
+    MessageDigest md = newDigest();
+    for (Map.Entry<String, String> entry : values.entrySet()) {
+      md.update((entry.getKey() + '=' + entry.getValue() + '\n').getBytes(StandardCharsets.UTF_8));
+    }
+    byte[] hash = md.digest();
+    return Long.toHexString(toLong(hash, 0));
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static long toLong(byte[] bytes, int offset) {
+    long result = 0;
+    for (int i = offset; i < offset + 8; i++) {
+      result = (result << 8) | (bytes[i] & 0xff);
+    }
+    return result;
+  }
+
+  static final class Key {
+    private final long hash1;
+    private final long hash2;
+    // only used for verifying that the key belongs to the class that is being transformed, not
+    // part of the identity of the key
+    private final String className;
+
+    Key(long hash1, long hash2, String className) {
+      this.hash1 = hash1;
+      this.hash2 = hash2;
+      this.className = className;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hash1 == other.hash1 && hash2 == other.hash2;
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) hash1;
+    }
+  }
+
+  private static class RecordingListener extends AgentBuilder.Listener.Adapter {
+
+    @Override
+    public void onIgnored(
+        TypeDescription typeDescription,
+        @Nullable ClassLoader classLoader,
+        @Nullable JavaModule module,
+        boolean loaded) {
+      TransformationCache cache = instance;
+      if (cache == null || loaded) {
+        return;
+      }
+      Key key = DefineClassHandler.getTransformationCacheKey();
+      if (key != null && typeDescription.getName().equals(key.className)) {
+        cache.recordUnmatched(key);
+      }
+    }
+  }
+}
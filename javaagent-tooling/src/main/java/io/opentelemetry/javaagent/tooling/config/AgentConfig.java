@@ -6,6 +6,10 @@
 package io.opentelemetry.javaagent.tooling.config;
 
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 public final class AgentConfig {
 
@@ -25,5 +29,32 @@ public final class AgentConfig {
     return config.getBoolean("otel.javaagent.debug", false);
   }
 
+  /**
+   * Returns the names of the {@code otel.} properties that are set by system properties,
+   * environment variables or the configuration file. Their resolved values can be read from the
+   * {@link ConfigProperties}, which doesn't list its properties.
+   */
+  public static Set<String> getConfiguredPropertyNames() {
+    Set<String> names = new TreeSet<>();
+    for (String name : System.getProperties().stringPropertyNames()) {
+      addIfOtelProperty(names, name);
+    }
+    for (String name : System.getenv().keySet()) {
+      // same normalization as the environment variables of the sdk autoconfiguration
+      addIfOtelProperty(names, name.replace('_', '.'));
+    }
+    for (Map.Entry<String, String> entry : ConfigurationFile.getProperties().entrySet()) {
+      addIfOtelProperty(names, entry.getKey());
+    }
+    return names;
+  }
+
+  private static void addIfOtelProperty(Set<String> names, String name) {
+    String normalized = name.toLowerCase(Locale.ROOT).replace('-', '.');
+    if (normalized.startsWith("otel.")) {
+      names.add(normalized);
+    }
+  }
+
   private AgentConfig() {}
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.field;
+
+import static io.opentelemetry.javaagent.extension.matcher.AgentElementMatchers.hasSuperType;
+import static java.util.logging.Level.FINE;
+import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
+import static net.bytebuddy.matcher.ElementMatchers.isBootstrapClassLoader;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.nameStartsWith;
+import static net.bytebuddy.matcher.ElementMatchers.namedOneOf;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+
+import io.opentelemetry.javaagent.tooling.config.EarlyInitAgentConfig;
+import io.opentelemetry.javaagent.tooling.muzzle.VirtualFieldMappings;
+import io.opentelemetry.javaagent.tooling.util.IgnoreFailedTypeMatcher;
+import java.io.File;
+import java.io.IOException;
+import java.lang.instrument.Instrumentation;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassInjector;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.utility.JavaModule;
+
+/**
+ * Injects the virtual fields of the executors instrumentation into the JDK task classes that are
+ * loaded while the agent is starting up, before the instrumentations are installed.
+ *
+ * <p>Fields can only be added to a class when it is loaded, a class that was loaded before the
+ * instrumentations were installed falls back to map-backed virtual fields. Creating the SDK starts
+ * executors which load {@code FutureTask}, {@code ScheduledThreadPoolExecutor$ScheduledFutureTask}
+ * and other task classes that are used by most applications. This installs a small transformer,
+ * before the SDK is created, that only adds the fields. Since the transformer doesn't support
+ * retransformation its output is what the instrumentations see when they retransform these classes
+ * later, and {@link RealFieldInjector} doesn't add the fields a second time.
+ *
+ * <p>The mappings are fixed because the instrumentation modules can't be loaded before the
+ * configuration is initialized. Classes that were already loaded when the agent started, like
+ * {@code Thread}, still use map-backed virtual fields.
+ */
+public final class EarlyFieldInjection {
+
+  private static final Logger logger = Logger.getLogger(EarlyFieldInjection.class.getName());
+
+  public static final String ENABLED_CONFIG =
+      "otel.javaagent.experimental.field-injection.early.enabled";
+
+  private static final String FIELD_INJECTION_ENABLED_CONFIG =
+      "otel.javaagent.experimental.field-injection.enabled";
+
+  private static final String PROPAGATED_CONTEXT_CLASS_NAME =
+      "io.opentelemetry.javaagent.bootstrap.executors.PropagatedContext";
+
+  // the virtual fields of the executors instrumentation
+  // Visible for testing
+  static final VirtualFieldMappings MAPPINGS =
+      mappings(
+          "java.lang.Runnable",
+          "java.util.concurrent.Callable",
+          "java.util.concurrent.Future",
+          "java.util.concurrent.ForkJoinTask");
+
+  /**
+   * Returns whether the fields should be injected early. The fields are not injected when field
+   * injection or the executors instrumentation is disabled.
+   */
+  public static boolean isEnabled(EarlyInitAgentConfig config) {
+    return config.getBoolean(ENABLED_CONFIG, false)
+        && config.getBoolean(FIELD_INJECTION_ENABLED_CONFIG, true)
+        && config.getBoolean(
+            "otel.instrumentation.executors.enabled",
+            config.getBoolean("otel.instrumentation.common.default-enabled", true));
+  }
+
+  /**
+   * Injects the field accessor interfaces into the bootstrap class loader and adds the
+   * transformation that injects the fields to the given agent builder.
+   *
+   * <p>This runs before the agent configuration is initialized, so it must not use classes that
+   * read the configuration when they are initialized, like {@link
+   * io.opentelemetry.javaagent.tooling.HelperInjector} or {@link
+   * io.opentelemetry.javaagent.tooling.muzzle.AgentTooling}.
+   */
+  public static AgentBuilder extend(AgentBuilder agentBuilder, Instrumentation instrumentation)
+      throws IOException {
+    FieldAccessorInterfaces fieldAccessorInterfaces =
+        new FieldAccessorInterfacesGenerator(new ByteBuddy())
+            .generateFieldAccessorInterfaces(MAPPINGS);
+    // the field accessor interfaces are injected into the bootstrap class loader, like the ones of
+    // FieldBackedImplementationInstaller; the names are the same, so they're only defined once
+    injectBootstrapClassLoader(fieldAccessorInterfaces.getAllInterfaces(), instrumentation);
+
+    Map<ElementMatcher<TypeDescription>, RealFieldInjector> fieldInjectors = new LinkedHashMap<>();
+    for (Map.Entry<String, String> entry : MAPPINGS.entrySet()) {
+      fieldInjectors.put(
+          hasSuperType(named(entry.getKey())),
+          new RealFieldInjector(fieldAccessorInterfaces, entry.getKey(), entry.getValue()));
+    }
+    return agentBuilder
+        .with(new ErrorLoggingListener())
+        .type(new IgnoreFailedTypeMatcher(typeMatcher()), isBootstrapClassLoader())
+        .transform(
+            (typeBuilder, typeDescription, classLoader, javaModule, protectionDomain) -> {
+              for (Map.Entry<ElementMatcher<TypeDescription>, RealFieldInjector> entry :
+                  fieldInjectors.entrySet()) {
+                if (entry.getKey().matches(typeDescription)) {
+                  typeBuilder = typeBuilder.visit(entry.getValue());
+                }
+              }
+              return typeBuilder;
+            });
+  }
+
+  private static void injectBootstrapClassLoader(
+      Collection<DynamicType.Unloaded<?>> types, Instrumentation instrumentation)
+      throws IOException {
+    Map<String, byte[]> classnameToBytes = new LinkedHashMap<>();
+    for (DynamicType.Unloaded<?> type : types) {
+      classnameToBytes.put(type.getTypeDescription().getName(), type.getBytes());
+    }
+
+    if (ClassInjector.UsingUnsafe.isAvailable()) {
+      ClassInjector.UsingUnsafe.ofBootLoader().injectRaw(classnameToBytes);
+      return;
+    }
+    File tempDir = Files.createTempDirectory("opentelemetry-temp-jars").toFile();
+    try {
+      ClassInjector.UsingInstrumentation.of(
+              tempDir, ClassInjector.UsingInstrumentation.Target.BOOTSTRAP, instrumentation)
+          .injectRaw(classnameToBytes);
+    } finally {
+      if (!tempDir.delete()) {
+        tempDir.deleteOnExit();
+      }
+    }
+  }
+
+  // Visible for testing
+  static ElementMatcher<TypeDescription> typeMatcher() {
+    Set<String> typeNames = new LinkedHashSet<>();
+    MAPPINGS.forEach((typeName, fieldTypeName) -> typeNames.add(typeName));
+    return nameStartsWith("java.")
+        .and(not(isAbstract()))
+        .and(hasSuperType(namedOneOf(typeNames.toArray(new String[0]))));
+  }
+
+  private static VirtualFieldMappings mappings(String... typeNames) {
+    Set<Map.Entry<String, String>> entrySet = new LinkedHashSet<>();
+    for (String typeName : typeNames) {
+      entrySet.add(new AbstractMap.SimpleImmutableEntry<>(typeName, PROPAGATED_CONTEXT_CLASS_NAME));
+    }
+    return new VirtualFieldMappings(entrySet);
+  }
+
+  private static class ErrorLoggingListener extends AgentBuilder.Listener.Adapter {
+    @Override
+    public void onError(
+        String typeName,
+        ClassLoader classLoader,
+        JavaModule module,
+        boolean loaded,
+        Throwable throwable) {
+      logger.log(FINE, "Failed to inject the virtual fields into " + typeName, throwable);
+    }
+  }
+
+  private EarlyFieldInjection() {}
+}
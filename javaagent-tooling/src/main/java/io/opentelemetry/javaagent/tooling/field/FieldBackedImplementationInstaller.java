@@ -6,6 +6,7 @@
 package io.opentelemetry.javaagent.tooling.field;
 
 import static io.opentelemetry.javaagent.extension.matcher.AgentElementMatchers.hasSuperType;
+import static io.opentelemetry.javaagent.tooling.field.GeneratedVirtualFieldNames.getFieldAccessorInterfaceName;
 import static java.util.logging.Level.FINEST;
 import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
 import static net.bytebuddy.matcher.ElementMatchers.named;
@@ -221,7 +222,7 @@ final class FieldBackedImplementationInstaller implements VirtualFieldImplementa
           builder =
               builder
                   .type(typeMatcher)
-                  .and(safeToInjectFieldsMatcher())
+                  .and(safeToInjectFieldsMatcher(entry.getKey(), entry.getValue()))
                   .and(InstrumentationModuleInstaller.NOT_DECORATOR_MATCHER)
                   .transform(NoOpTransformer.INSTANCE);
 
@@ -243,18 +244,33 @@ final class FieldBackedImplementationInstaller implements VirtualFieldImplementa
     return builder;
   }
 
-  private static AgentBuilder.RawMatcher safeToInjectFieldsMatcher() {
+  private static AgentBuilder.RawMatcher safeToInjectFieldsMatcher(
+      String typeName, String fieldTypeName) {
+    String fieldAccessorInterfaceName = getFieldAccessorInterfaceName(typeName, fieldTypeName);
     return (typeDescription, classLoader, module, classBeingRedefined, protectionDomain) -> {
       /*
        * The idea here is that we can add fields if class is just being loaded
        * (classBeingRedefined == null) and we have to add same fields again if class we added
-       * fields before is being transformed again.
+       * fields before is being transformed again. A class that got only some of the fields when it
+       * was loaded (see EarlyFieldInjection) must not get the other fields when it is transformed
+       * again.
        */
       return classBeingRedefined == null
-          || VirtualFieldDetector.hasVirtualFields(classBeingRedefined);
+          || (VirtualFieldDetector.hasVirtualFields(classBeingRedefined)
+              && hasFieldAccessor(classBeingRedefined, fieldAccessorInterfaceName));
     };
   }
 
+  private static boolean hasFieldAccessor(Class<?> clazz, String fieldAccessorInterfaceName) {
+    // Class.getInterfaces() doesn't return the field accessor interfaces when the internal
+    // reflection instrumentation is applied
+    try {
+      return Class.forName(fieldAccessorInterfaceName, false, null).isAssignableFrom(clazz);
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
   private static AgentBuilder.Transformer getTransformerForAsmVisitor(AsmVisitorWrapper visitor) {
     return (builder, typeDescription, classLoader, javaModule, protectionDomain) ->
         builder.visit(visitor);
@@ -14,22 +14,40 @@ import io.opentelemetry.javaagent.bootstrap.InstrumentationHolder;
 import io.opentelemetry.javaagent.extension.instrumentation.InstrumentationModule;
 import io.opentelemetry.javaagent.tooling.AgentExtension;
 import io.opentelemetry.javaagent.tooling.Utils;
+import io.opentelemetry.javaagent.tooling.instrumentation.InstrumentationModuleInstaller.PreparedModule;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 import net.bytebuddy.agent.builder.AgentBuilder;
 
 @AutoService(AgentExtension.class)
 public class InstrumentationLoader implements AgentExtension {
   private static final Logger logger = Logger.getLogger(InstrumentationLoader.class.getName());
 
+  private static final String PREPARE_THREADS_CONFIG =
+      "otel.javaagent.experimental.instrumentation-loader.threads";
+
   private final InstrumentationModuleInstaller instrumentationModuleInstaller =
       new InstrumentationModuleInstaller(InstrumentationHolder.getInstrumentation());
 
   @Override
   public AgentBuilder extend(AgentBuilder agentBuilder, ConfigProperties config) {
+    MuzzleResultCache.initialize(config);
+    List<InstrumentationModule> instrumentationModules =
+        loadOrdered(InstrumentationModule.class, Utils.getExtensionsClassLoader());
+    List<PreparedModule> preparedModules = prepareAll(instrumentationModules, config);
+
+    // modules are installed in order, so that the order of the transformations follows the order
+    // of the modules
     int numberOfLoadedModules = 0;
-    for (InstrumentationModule instrumentationModule :
-        loadOrdered(InstrumentationModule.class, Utils.getExtensionsClassLoader())) {
+    for (int i = 0; i < instrumentationModules.size(); i++) {
+      InstrumentationModule instrumentationModule = instrumentationModules.get(i);
+      PreparedModule preparedModule = preparedModules.get(i);
+      if (preparedModule == null) {
+        continue;
+      }
       if (logger.isLoggable(FINE)) {
         logger.log(
             FINE,
@@ -40,18 +58,10 @@ public class InstrumentationLoader implements AgentExtension {
             });
       }
       try {
-        agentBuilder =
-            instrumentationModuleInstaller.install(instrumentationModule, agentBuilder, config);
+        agentBuilder = instrumentationModuleInstaller.install(preparedModule, agentBuilder, config);
         numberOfLoadedModules++;
       } catch (Exception | LinkageError e) {
-        logger.log(
-            SEVERE,
-            "Unable to load instrumentation "
-                + instrumentationModule.instrumentationName()
-                + " [class "
-                + instrumentationModule.getClass().getName()
-                + "]",
-            e);
+        logUnableToLoad(instrumentationModule, e);
       }
     }
     logger.log(FINE, "Installed {0} instrumenter(s)", numberOfLoadedModules);
@@ -59,6 +69,84 @@ public class InstrumentationLoader implements AgentExtension {
     return agentBuilder;
   }
 
+  /**
+   * Prepares the instrumentation modules, in parallel when more than one thread is configured.
+   * Returns a list with the prepared module at the index of each module, {@code null} for modules
+   * that are disabled or failed to be prepared.
+   */
+  private List<PreparedModule> prepareAll(
+      List<InstrumentationModule> instrumentationModules, ConfigProperties config) {
+    int threads =
+        Math.min(
+            config.getInt(
+                PREPARE_THREADS_CONFIG, Math.min(Runtime.getRuntime().availableProcessors(), 4)),
+            instrumentationModules.size());
+    PreparedModule[] preparedModules = new PreparedModule[instrumentationModules.size()];
+    if (threads <= 1) {
+      prepareSlice(instrumentationModules, config, preparedModules, 0, 1);
+      return Arrays.asList(preparedModules);
+    }
+
+    // plain platform threads are used on purpose: ForkJoinPool and parallel streams would load
+    // ForkJoinTask subclasses before the agent transformer is installed, and these classes would
+    // then never get the context propagation fields injected by the executors instrumentation
+    Thread[] workers = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      int offset = i;
+      workers[i] =
+          new Thread(
+              () -> prepareSlice(instrumentationModules, config, preparedModules, offset, threads),
+              "otel-javaagent-prepare-" + i);
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+    try {
+      for (Thread worker : workers) {
+        worker.join();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while preparing instrumentation modules", e);
+    }
+    return Arrays.asList(preparedModules);
+  }
+
+  // prepares every stride-th module starting from offset, interleaving the slices keeps the
+  // expensive modules spread over all threads
+  private void prepareSlice(
+      List<InstrumentationModule> instrumentationModules,
+      ConfigProperties config,
+      PreparedModule[] preparedModules,
+      int offset,
+      int stride) {
+    for (int i = offset; i < instrumentationModules.size(); i += stride) {
+      preparedModules[i] = prepare(instrumentationModules.get(i), config);
+    }
+  }
+
+  @Nullable
+  private PreparedModule prepare(
+      InstrumentationModule instrumentationModule, ConfigProperties config) {
+    try {
+      return instrumentationModuleInstaller.prepare(instrumentationModule, config);
+    } catch (Exception | LinkageError e) {
+      logUnableToLoad(instrumentationModule, e);
+      return null;
+    }
+  }
+
+  private static void logUnableToLoad(
+      InstrumentationModule instrumentationModule, Throwable throwable) {
+    logger.log(
+        SEVERE,
+        "Unable to load instrumentation "
+            + instrumentationModule.instrumentationName()
+            + " [class "
+            + instrumentationModule.getClass().getName()
+            + "]",
+        throwable);
+  }
+
   @Override
   public String extensionName() {
     return "instrumentation-loader";
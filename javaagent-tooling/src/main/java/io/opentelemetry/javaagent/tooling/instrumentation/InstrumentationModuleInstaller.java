@@ -5,6 +5,7 @@
 
 package io.opentelemetry.javaagent.tooling.instrumentation;
 
+import static java.util.Objects.requireNonNull;
 import static java.util.logging.Level.FINE;
 import static java.util.logging.Level.WARNING;
 import static net.bytebuddy.matcher.ElementMatchers.isAnnotatedWith;
@@ -15,6 +16,7 @@ import io.opentelemetry.javaagent.extension.instrumentation.InstrumentationModul
 import io.opentelemetry.javaagent.extension.instrumentation.TypeInstrumentation;
 import io.opentelemetry.javaagent.extension.instrumentation.internal.ExperimentalInstrumentationModule;
 import io.opentelemetry.javaagent.extension.instrumentation.internal.injection.InjectionMode;
+import io.opentelemetry.javaagent.tooling.AgentSelfMetrics;
 import io.opentelemetry.javaagent.tooling.HelperClassDefinition;
 import io.opentelemetry.javaagent.tooling.HelperInjector;
 import io.opentelemetry.javaagent.tooling.TransformSafeLogger;
@@ -27,6 +29,7 @@ import io.opentelemetry.javaagent.tooling.instrumentation.indy.ClassInjectorImpl
 import io.opentelemetry.javaagent.tooling.instrumentation.indy.IndyModuleRegistry;
 import io.opentelemetry.javaagent.tooling.instrumentation.indy.IndyTypeTransformerImpl;
 import io.opentelemetry.javaagent.tooling.instrumentation.indy.PatchByteCodeVersionTransformer;
+import io.opentelemetry.javaagent.tooling.muzzle.HelperResource;
 import io.opentelemetry.javaagent.tooling.muzzle.HelperResourceBuilderImpl;
 import io.opentelemetry.javaagent.tooling.muzzle.InstrumentationModuleMuzzle;
 import io.opentelemetry.javaagent.tooling.util.IgnoreFailedTypeMatcher;
@@ -37,6 +40,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
+import javax.annotation.Nullable;
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.description.annotation.AnnotationSource;
 import net.bytebuddy.description.type.TypeDescription;
@@ -60,37 +64,56 @@ public final class InstrumentationModuleInstaller {
     this.instrumentation = instrumentation;
   }
 
-  AgentBuilder install(
-      InstrumentationModule instrumentationModule,
-      AgentBuilder parentAgentBuilder,
-      ConfigProperties config) {
+  /**
+   * Prepares everything needed for installing the instrumentation module that doesn't depend on
+   * the order in which the modules are installed: loads the type instrumentations and helper class
+   * names, builds the matchers and generates the virtual field implementations. This method can be
+   * called concurrently for different modules.
+   *
+   * @return the prepared module, or {@code null} if the module is disabled
+   */
+  @Nullable
+  PreparedModule prepare(InstrumentationModule instrumentationModule, ConfigProperties config) {
     if (!AgentConfig.isInstrumentationEnabled(
         config,
         instrumentationModule.instrumentationNames(),
         instrumentationModule.defaultEnabled(config))) {
       logger.log(
           FINE, "Instrumentation {0} is disabled", instrumentationModule.instrumentationName());
-      return parentAgentBuilder;
+      return null;
     }
 
-    if (instrumentationModule.isIndyModule()) {
-      return installIndyModule(instrumentationModule, parentAgentBuilder, config);
-    } else {
-      return installInjectingModule(instrumentationModule, parentAgentBuilder, config);
-    }
-  }
-
-  private AgentBuilder installIndyModule(
-      InstrumentationModule instrumentationModule,
-      AgentBuilder parentAgentBuilder,
-      ConfigProperties config) {
     List<String> helperClassNames =
         InstrumentationModuleMuzzle.getHelperClassNames(instrumentationModule);
     HelperResourceBuilderImpl helperResourceBuilder = new HelperResourceBuilderImpl();
     instrumentationModule.registerHelperResources(helperResourceBuilder);
-    List<TypeInstrumentation> typeInstrumentations = instrumentationModule.typeInstrumentations();
-    if (typeInstrumentations.isEmpty()) {
-      if (!helperClassNames.isEmpty() || !helperResourceBuilder.getResources().isEmpty()) {
+    List<PreparedTypeInstrumentation> typeInstrumentations = new ArrayList<>();
+    for (TypeInstrumentation typeInstrumentation : instrumentationModule.typeInstrumentations()) {
+      typeInstrumentations.add(
+          new PreparedTypeInstrumentation(
+              typeInstrumentation,
+              typeMatcher(instrumentationModule, typeInstrumentation),
+              classLoaderMatcher(instrumentationModule, typeInstrumentation)));
+    }
+    VirtualFieldImplementationInstaller contextProvider =
+        typeInstrumentations.isEmpty()
+            ? null
+            : virtualFieldInstallerFactory.create(instrumentationModule);
+
+    return new PreparedModule(
+        instrumentationModule,
+        helperClassNames,
+        helperResourceBuilder.getResources(),
+        typeInstrumentations,
+        contextProvider);
+  }
+
+  AgentBuilder install(
+      PreparedModule preparedModule, AgentBuilder parentAgentBuilder, ConfigProperties config) {
+    InstrumentationModule instrumentationModule = preparedModule.instrumentationModule;
+    if (preparedModule.typeInstrumentations.isEmpty()) {
+      if (!preparedModule.helperClassNames.isEmpty()
+          || !preparedModule.helperResources.isEmpty()) {
         logger.log(
             WARNING,
             "Helper classes and resources won't be injected if no types are instrumented: {0}",
@@ -100,6 +123,17 @@ public final class InstrumentationModuleInstaller {
       return parentAgentBuilder;
     }
 
+    if (instrumentationModule.isIndyModule()) {
+      return installIndyModule(preparedModule, parentAgentBuilder, config);
+    } else {
+      return installInjectingModule(preparedModule, parentAgentBuilder, config);
+    }
+  }
+
+  private AgentBuilder installIndyModule(
+      PreparedModule preparedModule, AgentBuilder parentAgentBuilder, ConfigProperties config) {
+    InstrumentationModule instrumentationModule = preparedModule.instrumentationModule;
+
     List<String> injectedHelperClassNames;
     if (instrumentationModule instanceof ExperimentalInstrumentationModule) {
       ExperimentalInstrumentationModule experimentalInstrumentationModule =
@@ -135,19 +169,20 @@ public final class InstrumentationModuleInstaller {
         new HelperInjector(
             instrumentationModule.instrumentationName(),
             helperGenerator,
-            helperResourceBuilder.getResources(),
+            preparedModule.helperResources,
             instrumentationModule.getClass().getClassLoader(),
             instrumentation);
 
     VirtualFieldImplementationInstaller contextProvider =
-        virtualFieldInstallerFactory.create(instrumentationModule);
+        requireNonNull(preparedModule.contextProvider);
 
     AgentBuilder agentBuilder = parentAgentBuilder;
-    for (TypeInstrumentation typeInstrumentation : instrumentationModule.typeInstrumentations()) {
+    for (PreparedTypeInstrumentation typeInstrumentation : preparedModule.typeInstrumentations) {
       AgentBuilder.Identified.Extendable extendableAgentBuilder =
-          setTypeMatcher(agentBuilder, instrumentationModule, typeInstrumentation)
+          setTypeMatcher(agentBuilder, typeInstrumentation)
               .and(muzzleMatcher)
               .transform(new PatchByteCodeVersionTransformer());
+      extendableAgentBuilder = recordSelfMetrics(extendableAgentBuilder, instrumentationModule);
 
       // TODO (Jonas): we are not calling
       // contextProvider.rewriteVirtualFieldsCalls(extendableAgentBuilder) anymore
@@ -161,7 +196,7 @@ public final class InstrumentationModuleInstaller {
       extendableAgentBuilder = contextProvider.injectHelperClasses(extendableAgentBuilder);
       IndyTypeTransformerImpl typeTransformer =
           new IndyTypeTransformerImpl(extendableAgentBuilder, instrumentationModule);
-      typeInstrumentation.transform(typeTransformer);
+      typeInstrumentation.typeInstrumentation.transform(typeTransformer);
       extendableAgentBuilder = typeTransformer.getAgentBuilder();
       // TODO (Jonas): make instrumentation of bytecode older than 1.4 opt-in via a config option
       extendableAgentBuilder = contextProvider.injectFields(extendableAgentBuilder);
@@ -172,48 +207,33 @@ public final class InstrumentationModuleInstaller {
   }
 
   private AgentBuilder installInjectingModule(
-      InstrumentationModule instrumentationModule,
-      AgentBuilder parentAgentBuilder,
-      ConfigProperties config) {
-    List<String> helperClassNames =
-        InstrumentationModuleMuzzle.getHelperClassNames(instrumentationModule);
-    HelperResourceBuilderImpl helperResourceBuilder = new HelperResourceBuilderImpl();
-    instrumentationModule.registerHelperResources(helperResourceBuilder);
-    List<TypeInstrumentation> typeInstrumentations = instrumentationModule.typeInstrumentations();
-    if (typeInstrumentations.isEmpty()) {
-      if (!helperClassNames.isEmpty() || !helperResourceBuilder.getResources().isEmpty()) {
-        logger.log(
-            WARNING,
-            "Helper classes and resources won't be injected if no types are instrumented: {0}",
-            instrumentationModule.instrumentationName());
-      }
-
-      return parentAgentBuilder;
-    }
+      PreparedModule preparedModule, AgentBuilder parentAgentBuilder, ConfigProperties config) {
+    InstrumentationModule instrumentationModule = preparedModule.instrumentationModule;
 
     MuzzleMatcher muzzleMatcher = new MuzzleMatcher(logger, instrumentationModule, config);
     AgentBuilder.Transformer helperInjector =
         new HelperInjector(
             instrumentationModule.instrumentationName(),
-            helperClassNames,
-            helperResourceBuilder.getResources(),
+            preparedModule.helperClassNames,
+            preparedModule.helperResources,
             Utils.getExtensionsClassLoader(),
             instrumentation);
     VirtualFieldImplementationInstaller contextProvider =
-        virtualFieldInstallerFactory.create(instrumentationModule);
+        requireNonNull(preparedModule.contextProvider);
 
     AgentBuilder agentBuilder = parentAgentBuilder;
-    for (TypeInstrumentation typeInstrumentation : typeInstrumentations) {
+    for (PreparedTypeInstrumentation typeInstrumentation : preparedModule.typeInstrumentations) {
 
       AgentBuilder.Identified.Extendable extendableAgentBuilder =
-          setTypeMatcher(agentBuilder, instrumentationModule, typeInstrumentation)
+          setTypeMatcher(agentBuilder, typeInstrumentation)
               .and(muzzleMatcher)
               .transform(ConstantAdjuster.instance())
               .transform(helperInjector);
+      extendableAgentBuilder = recordSelfMetrics(extendableAgentBuilder, instrumentationModule);
       extendableAgentBuilder = contextProvider.injectHelperClasses(extendableAgentBuilder);
       extendableAgentBuilder = contextProvider.rewriteVirtualFieldsCalls(extendableAgentBuilder);
       TypeTransformerImpl typeTransformer = new TypeTransformerImpl(extendableAgentBuilder);
-      typeInstrumentation.transform(typeTransformer);
+      typeInstrumentation.typeInstrumentation.transform(typeTransformer);
       extendableAgentBuilder = typeTransformer.getAgentBuilder();
       extendableAgentBuilder = contextProvider.injectFields(extendableAgentBuilder);
 
@@ -223,36 +243,85 @@ public final class InstrumentationModuleInstaller {
     return agentBuilder;
   }
 
-  private static AgentBuilder.Identified.Narrowable setTypeMatcher(
-      AgentBuilder agentBuilder,
-      InstrumentationModule instrumentationModule,
-      TypeInstrumentation typeInstrumentation) {
-
-    ElementMatcher.Junction<ClassLoader> moduleClassLoaderMatcher =
-        instrumentationModule.classLoaderMatcher();
+  private static AgentBuilder.Identified.Extendable recordSelfMetrics(
+      AgentBuilder.Identified.Extendable agentBuilder,
+      InstrumentationModule instrumentationModule) {
+    return agentBuilder.transform(
+        AgentSelfMetrics.transformer(instrumentationModule.instrumentationName()));
+  }
 
+  private static ElementMatcher<TypeDescription> typeMatcher(
+      InstrumentationModule instrumentationModule, TypeInstrumentation typeInstrumentation) {
     ElementMatcher<TypeDescription> typeMatcher =
         new NamedMatcher<>(
             instrumentationModule.getClass().getSimpleName()
                 + "#"
                 + typeInstrumentation.getClass().getSimpleName(),
             new IgnoreFailedTypeMatcher(typeInstrumentation.typeMatcher()));
+    return new LoggingFailSafeMatcher<>(
+        typeMatcher, "Instrumentation type matcher unexpected exception: " + typeMatcher);
+  }
+
+  private static ElementMatcher<ClassLoader> classLoaderMatcher(
+      InstrumentationModule instrumentationModule, TypeInstrumentation typeInstrumentation) {
+    ElementMatcher.Junction<ClassLoader> moduleClassLoaderMatcher =
+        instrumentationModule.classLoaderMatcher();
+
     ElementMatcher<ClassLoader> classLoaderMatcher =
         new NamedMatcher<>(
             instrumentationModule.getClass().getSimpleName()
                 + "#"
                 + typeInstrumentation.getClass().getSimpleName(),
             moduleClassLoaderMatcher.and(typeInstrumentation.classLoaderOptimization()));
+    return new LoggingFailSafeMatcher<>(
+        classLoaderMatcher,
+        "Instrumentation class loader matcher unexpected exception: " + classLoaderMatcher);
+  }
 
+  private static AgentBuilder.Identified.Narrowable setTypeMatcher(
+      AgentBuilder agentBuilder, PreparedTypeInstrumentation typeInstrumentation) {
     return agentBuilder
-        .type(
-            new LoggingFailSafeMatcher<>(
-                typeMatcher, "Instrumentation type matcher unexpected exception: " + typeMatcher),
-            new LoggingFailSafeMatcher<>(
-                classLoaderMatcher,
-                "Instrumentation class loader matcher unexpected exception: " + classLoaderMatcher))
+        .type(typeInstrumentation.typeMatcher, typeInstrumentation.classLoaderMatcher)
         .and(
             (typeDescription, classLoader, module, classBeingRedefined, protectionDomain) ->
                 classLoader == null || NOT_DECORATOR_MATCHER.matches(typeDescription));
   }
+
+  /** The parts of an instrumentation module that are built by {@link #prepare}. */
+  static final class PreparedModule {
+    final InstrumentationModule instrumentationModule;
+    final List<String> helperClassNames;
+    final List<HelperResource> helperResources;
+    final List<PreparedTypeInstrumentation> typeInstrumentations;
+    // null when the module doesn't instrument any types
+    @Nullable final VirtualFieldImplementationInstaller contextProvider;
+
+    PreparedModule(
+        InstrumentationModule instrumentationModule,
+        List<String> helperClassNames,
+        List<HelperResource> helperResources,
+        List<PreparedTypeInstrumentation> typeInstrumentations,
+        @Nullable VirtualFieldImplementationInstaller contextProvider) {
+      this.instrumentationModule = instrumentationModule;
+      this.helperClassNames = helperClassNames;
+      this.helperResources = helperResources;
+      this.typeInstrumentations = typeInstrumentations;
+      this.contextProvider = contextProvider;
+    }
+  }
+
+  private static final class PreparedTypeInstrumentation {
+    final TypeInstrumentation typeInstrumentation;
+    final ElementMatcher<TypeDescription> typeMatcher;
+    final ElementMatcher<ClassLoader> classLoaderMatcher;
+
+    PreparedTypeInstrumentation(
+        TypeInstrumentation typeInstrumentation,
+        ElementMatcher<TypeDescription> typeMatcher,
+        ElementMatcher<ClassLoader> classLoaderMatcher) {
+      this.typeInstrumentation = typeInstrumentation;
+      this.typeMatcher = typeMatcher;
+      this.classLoaderMatcher = classLoaderMatcher;
+    }
+  }
 }
@@ -6,9 +6,12 @@
 package io.opentelemetry.javaagent.tooling.instrumentation;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public final class MuzzleFailureCounter {
   private static final AtomicInteger counter = new AtomicInteger();
+  // unlike the counter above this one is never reset, it is reported by the agent self metrics
+  private static final LongAdder total = new LongAdder();
 
   private MuzzleFailureCounter() {}
 
@@ -16,7 +19,12 @@ public final class MuzzleFailureCounter {
     return counter.getAndSet(0);
   }
 
+  public static long getTotal() {
+    return total.sum();
+  }
+
   public static void inc() {
     counter.incrementAndGet();
+    total.increment();
   }
 }
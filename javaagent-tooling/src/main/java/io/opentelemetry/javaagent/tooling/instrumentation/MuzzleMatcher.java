@@ -21,7 +21,7 @@ import io.opentelemetry.javaagent.tooling.muzzle.ReferenceMatcher;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
 import java.security.ProtectionDomain;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import net.bytebuddy.agent.builder.AgentBuilder;
@@ -40,7 +40,6 @@ class MuzzleMatcher implements AgentBuilder.RawMatcher {
   private final TransformSafeLogger instrumentationLogger;
   private final InstrumentationModule instrumentationModule;
   private final Level muzzleLogLevel;
-  private final AtomicBoolean initialized = new AtomicBoolean(false);
   private final Cache<ClassLoader, Boolean> matchCache = Cache.weak();
   private volatile ReferenceMatcher referenceMatcher;
 
@@ -66,17 +65,55 @@ class MuzzleMatcher implements AgentBuilder.RawMatcher {
     if (instrumentationModule.isIndyModule()) {
       return matchCache.computeIfAbsent(
           classLoader,
-          cl -> {
-            InstrumentationModuleClassLoader moduleCl =
-                IndyModuleRegistry.createInstrumentationClassLoaderWithoutRegistration(
-                    instrumentationModule, cl);
-            return doesMatch(moduleCl);
-          });
+          cl ->
+              doesMatchCached(
+                  cl,
+                  unused -> {
+                    InstrumentationModuleClassLoader moduleCl =
+                        IndyModuleRegistry.createInstrumentationClassLoaderWithoutRegistration(
+                            instrumentationModule, cl);
+                    return doesMatch(moduleCl);
+                  }));
     } else {
-      return matchCache.computeIfAbsent(classLoader, this::doesMatch);
+      return matchCache.computeIfAbsent(classLoader, cl -> doesMatchCached(cl, this::doesMatch));
     }
   }
 
+  private boolean doesMatchCached(ClassLoader classLoader, Predicate<ClassLoader> matcher) {
+    MuzzleResultCache resultCache = MuzzleResultCache.get();
+    if (resultCache == null) {
+      return matcher.test(classLoader);
+    }
+    MuzzleResultCache.Key key =
+        resultCache.key(
+            instrumentationModule.getClass().getName(),
+            classLoader == Utils.getBootstrapProxy() ? null : classLoader);
+    if (key == null) {
+      return matcher.test(classLoader);
+    }
+    Boolean cachedResult = resultCache.getResult(key);
+    if (cachedResult != null) {
+      if (!cachedResult) {
+        MuzzleFailureCounter.inc();
+      }
+      if (muzzleLogger.isLoggable(FINE)) {
+        muzzleLogger.log(
+            FINE,
+            "Using cached muzzle result {0} for {1} [class {2}] on {3}",
+            new Object[] {
+              cachedResult,
+              instrumentationModule.instrumentationName(),
+              instrumentationModule.getClass().getName(),
+              classLoader
+            });
+      }
+      return cachedResult;
+    }
+    boolean result = matcher.test(classLoader);
+    resultCache.recordResult(key, result);
+    return result;
+  }
+
   private boolean doesMatch(ClassLoader classLoader) {
     ReferenceMatcher muzzle = getReferenceMatcher();
     boolean isMatch = muzzle.matches(classLoader);
@@ -114,11 +151,20 @@ class MuzzleMatcher implements AgentBuilder.RawMatcher {
   }
 
   // ReferenceMatcher is lazily created to avoid unnecessarily loading the muzzle references from
-  // the module during the agent setup
+  // the module during the agent setup. This matcher runs after the type and class loader matchers,
+  // so the references are only materialized once the module has matched a class, modules for
+  // libraries that are not used by the application never load them.
   private ReferenceMatcher getReferenceMatcher() {
-    if (initialized.compareAndSet(false, true)) {
-      referenceMatcher = ReferenceMatcher.of(instrumentationModule);
+    ReferenceMatcher matcher = referenceMatcher;
+    if (matcher == null) {
+      synchronized (this) {
+        matcher = referenceMatcher;
+        if (matcher == null) {
+          matcher = ReferenceMatcher.of(instrumentationModule);
+          referenceMatcher = matcher;
+        }
+      }
     }
-    return referenceMatcher;
+    return matcher;
   }
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.instrumentation;
+
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+
+import io.opentelemetry.javaagent.tooling.AgentVersion;
+import io.opentelemetry.javaagent.tooling.ClassPathFingerprint;
+import io.opentelemetry.javaagent.tooling.ExtensionClassLoader;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * Remembers the muzzle results across restarts, so that when the same application is started
+ * again the references of the instrumentation modules don't need to be verified against the class
+ * loaders again.
+ *
+ * <p>A result is identified by a hash of the instrumentation module class name and the {@link
+ * ClassPathFingerprint} of the class loader, which includes the size and the modification time of
+ * the jar files visible to the class loader. Results for class loaders whose class path can't be
+ * determined, or contains a directory, are not cached. The cache file name contains a hash of the
+ * agent version, the JVM version and the size and the modification time of the extension jars, so
+ * changing either of them starts with an empty cache.
+ */
+final class MuzzleResultCache {
+
+  private static final Logger logger = Logger.getLogger(MuzzleResultCache.class.getName());
+
+  private static final String DIRECTORY_CONFIG =
+      "otel.javaagent.experimental.muzzle-cache.directory";
+
+  private static final int MAGIC = 0x4f544d31;
+
+  @Nullable private static volatile MuzzleResultCache instance;
+
+  private final Path file;
+  // results read from the cache file
+  private final Map<Key, Boolean> persisted = new ConcurrentHashMap<>();
+  // results that were used during this run, only these are written back to the cache file so that
+  // results for class loaders that no longer exist are eventually dropped
+  private final Map<Key, Boolean> current = new ConcurrentHashMap<>();
+
+  /** Creates the cache when it is enabled by the configuration, and loads its content. */
+  static void initialize(ConfigProperties config) {
+    String directory = config.getString(DIRECTORY_CONFIG);
+    if (instance != null || directory == null || directory.isEmpty()) {
+      return;
+    }
+
+    Path file = Paths.get(directory).resolve("muzzle-cache-" + fingerprint(config) + ".bin");
+    MuzzleResultCache cache = new MuzzleResultCache(file);
+    cache.load();
+    instance = cache;
+    Runtime.getRuntime().addShutdownHook(new Thread(cache::persist, "otel-muzzle-cache"));
+  }
+
+  /** Returns the cache, or {@code null} when it is not enabled. */
+  @Nullable
+  static MuzzleResultCache get() {
+    return instance;
+  }
+
+  // Visible for testing
+  MuzzleResultCache(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Returns the key identifying the result of the given module for the given class loader, or
+   * {@code null} when the result can't be cached.
+   */
+  @Nullable
+  Key key(String moduleClassName, @Nullable ClassLoader classLoader) {
+    String classPath = ClassPathFingerprint.of(classLoader);
+    if (classPath.equals(ClassPathFingerprint.UNKNOWN)) {
+      return null;
+    }
+    MessageDigest md = newDigest();
+    md.update(moduleClassName.getBytes(StandardCharsets.UTF_8));
+    md.update((byte) 0);
+    md.update(classPath.getBytes(StandardCharsets.UTF_8));
+    byte[] hash = md.digest();
+    return new Key(toLong(hash, 0), toLong(hash, 8));
+  }
+
+  /** Returns the cached result, or {@code null} when there is none. */
+  @Nullable
+  Boolean getResult(Key key) {
+    Boolean result = current.get(key);
+    if (result == null) {
+      result = persisted.get(key);
+      if (result != null) {
+        current.put(key, result);
+      }
+    }
+    return result;
+  }
+
+  void recordResult(Key key, boolean result) {
+    current.put(key, result);
+  }
+
+  // Visible for testing
+  void load() {
+    if (!Files.exists(file)) {
+      return;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        logger.log(WARNING, "Ignoring invalid muzzle cache file {0}", file);
+        return;
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        persisted.put(new Key(in.readLong(), in.readLong()), in.readBoolean());
+      }
+      logger.log(FINE, "Loaded {0} entries from muzzle cache {1}", new Object[] {count, file});
+    } catch (IOException e) {
+      persisted.clear();
+      logger.log(WARNING, "Failed to read muzzle cache file " + file, e);
+    }
+  }
+
+  // Visible for testing
+  void persist() {
+    // nothing new was recorded and no entry became stale
+    if (current.isEmpty() || current.equals(persisted)) {
+      return;
+    }
+    Map<Key, Boolean> results = new HashMap<>(current);
+    try {
+      Files.createDirectories(file.getParent());
+      Path tmp = Files.createTempFile(file.getParent(), "muzzle-cache", ".tmp");
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(results.size());
+        for (Map.Entry<Key, Boolean> entry : results.entrySet()) {
+          out.writeLong(entry.getKey().hash1);
+          out.writeLong(entry.getKey().hash2);
+          out.writeBoolean(entry.getValue());
+        }
+      }
+      try {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      logger.log(WARNING, "Failed to write muzzle cache file " + file, e);
+    }
+  }
+
+  /**
+   * Returns a hash of everything besides the class loaders that decides the muzzle results: the
+   * agent version, which contains the instrumentation modules, the JVM, which contains the classes
+   * of the bootstrap class loader, and the extension jars, which can contain instrumentation
+   * modules too.
+   */
+  // Visible for testing
+  static String fingerprint(ConfigProperties config) {
+    MessageDigest md = newDigest();
+    String fingerprint =
+        AgentVersion.VERSION
+            + '\n'
+            + System.getProperty("java.home")
+            + '\n'
+            + System.getProperty("java.vm.version")
+            + '\n'
+            + ClassPathFingerprint.ofExtensions(
+                config.getString(ExtensionClassLoader.EXTENSIONS_CONFIG));
+    byte[] hash = md.digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+    return Long.toHexString(toLong(hash, 0));
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static long toLong(byte[] bytes, int offset) {
+    long result = 0;
+    for (int i = offset; i < offset + 8; i++) {
+      result = (result << 8) | (bytes[i] & 0xff);
+    }
+    return result;
+  }
+
+  static final class Key {
+    private final long hash1;
+    private final long hash2;
+
+    Key(long hash1, long hash2) {
+      this.hash1 = hash1;
+      this.hash2 = hash2;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hash1 == other.hash1 && hash2 == other.hash2;
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) hash1;
+    }
+  }
+}
@@ -119,14 +119,16 @@ public class InstrumentationModuleClassLoader extends ClassLoader {
     return cachedLookup;
   }
 
-  public synchronized void installModule(InstrumentationModule module) {
+  public void installModule(InstrumentationModule module) {
     if (module.getClass().getClassLoader() != agentOrExtensionCl) {
       throw new IllegalArgumentException(
           module.getClass().getName() + " is not loaded by " + agentOrExtensionCl);
     }
-    if (!installedModules.add(module)) {
+    if (installedModules.contains(module)) {
       return;
     }
+    // no locking needed: concurrent installations of the same module inject the same classes, and
+    // the module is marked as installed only after its classes are available
     Map<String, BytecodeWithUrl> classesToInject =
         getClassesToInject(module).stream()
             .collect(
@@ -134,14 +136,15 @@ public class InstrumentationModuleClassLoader extends ClassLoader {
                     className -> className,
                     className -> BytecodeWithUrl.create(className, agentOrExtensionCl)));
     installInjectedClasses(classesToInject);
+    installedModules.add(module);
   }
 
-  public synchronized boolean hasModuleInstalled(InstrumentationModule module) {
+  public boolean hasModuleInstalled(InstrumentationModule module) {
     return installedModules.contains(module);
   }
 
   // Visible for testing
-  synchronized void installInjectedClasses(Map<String, BytecodeWithUrl> classesToInject) {
+  void installInjectedClasses(Map<String, BytecodeWithUrl> classesToInject) {
     classesToInject.forEach(additionalInjectedClasses::putIfAbsent);
   }
 
@@ -10,6 +10,8 @@ import static java.util.logging.Level.FINE;
 import io.opentelemetry.javaagent.extension.matcher.internal.DelegatingMatcher;
 import io.opentelemetry.javaagent.extension.matcher.internal.DelegatingSuperTypeMatcher;
 import io.opentelemetry.javaagent.tooling.DefineClassHandler;
+import io.opentelemetry.javaagent.tooling.TransformationCache;
+import io.opentelemetry.javaagent.tooling.util.Trie;
 import java.lang.reflect.Field;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
@@ -48,6 +50,8 @@ public class AgentBuilderUtil {
   private static final Field erasureMatcherField = getField(ErasureMatcher.class, "matcher");
   private static final Field conjunctionMatchersField =
       getField(ElementMatcher.Junction.Conjunction.class, "matchers");
+  private static final Field disjunctionMatchersField =
+      getField(ElementMatcher.Junction.Disjunction.class, "matchers");
   private static final Field stringMatcherValueField = getField(StringMatcher.class, "value");
   private static final Field stringMatcherModeField = getField(StringMatcher.class, "mode");
   private static final Field stringSetMatcherValuesField =
@@ -75,6 +79,10 @@ public class AgentBuilderUtil {
     Set<String> classNames = new HashSet<>();
     // class names that have a matcher that matches subtypes
     Set<String> superTypeNames = new HashSet<>();
+    // class name prefixes that have a matcher that matches by name
+    Trie.Builder<Boolean> classNamePrefixesBuilder = Trie.builder();
+    // class name prefixes that have a matcher that matches subtypes
+    Trie.Builder<Boolean> superTypeNamePrefixesBuilder = Trie.builder();
     List<Transformation> unoptimizedTransformations = new ArrayList<>();
     List<Transformation> transformations = agentBuilder.transformations;
     for (Transformation transformation : transformations) {
@@ -86,10 +94,14 @@ public class AgentBuilderUtil {
         unoptimizedTransformations.add(transformation);
       } else if (result.subtype) {
         superTypeNames.addAll(result.names);
+        result.prefixes.forEach(prefix -> superTypeNamePrefixesBuilder.put(prefix, true));
       } else {
         classNames.addAll(result.names);
+        result.prefixes.forEach(prefix -> classNamePrefixesBuilder.put(prefix, true));
       }
     }
+    Trie<Boolean> classNamePrefixes = classNamePrefixesBuilder.build();
+    Trie<Boolean> superTypeNamePrefixes = superTypeNamePrefixesBuilder.build();
 
     List<?> list =
         (List<?>)
@@ -100,8 +112,16 @@ public class AgentBuilderUtil {
                   String name = TransformContext.getTransformedClassName();
                   // iterator() is the only method we expect to be called on this List
                   if (name != null && "iterator".equals(method.getName())) {
+                    // a previous run of the same application has seen that this class is not
+                    // transformed
+                    if (TransformationCache.isKnownUnmatched(name)) {
+                      return Collections.emptyIterator();
+                    }
                     // we know that this class is going to be transformed
-                    if (classNames.contains(name) || superTypeNames.contains(name)) {
+                    if (classNames.contains(name)
+                        || superTypeNames.contains(name)
+                        || classNamePrefixes.contains(name)
+                        || superTypeNamePrefixes.contains(name)) {
                       return transformations.iterator();
                     }
                     // we already know that loading this class is going to fail, no need to
@@ -117,7 +137,8 @@ public class AgentBuilderUtil {
                     }
                     for (String className : loadingSuperTypes) {
                       // we know that this class is going to be transformed
-                      if (superTypeNames.contains(className)) {
+                      if (superTypeNames.contains(className)
+                          || superTypeNamePrefixes.contains(className)) {
                         return transformations.iterator();
                       }
                     }
@@ -178,6 +199,18 @@ public class AgentBuilderUtil {
           return result;
         }
       }
+    } else if (matcher instanceof ElementMatcher.Junction.Disjunction) {
+      // a disjunction can only be decomposed when all of its elements can be decomposed
+      List<ElementMatcher<?>> matchers =
+          getDelegateMatchers((ElementMatcher.Junction.Disjunction<?>) matcher);
+      Result union = null;
+      for (ElementMatcher<?> elementMatcher : matchers) {
+        union = Result.union(union, inspect(elementMatcher));
+        if (union == null) {
+          return null;
+        }
+      }
+      return union;
     }
 
     return null;
@@ -187,8 +220,13 @@ public class AgentBuilderUtil {
   private static Result inspectNameMatcher(NameMatcher<?> nameMatcher) throws Exception {
     ElementMatcher<?> matcher = getDelegateMatcher(nameMatcher);
     if (matcher instanceof StringMatcher) {
-      String value = getStringMatcherValue((StringMatcher) matcher);
-      return Result.named(value);
+      StringMatcher stringMatcher = (StringMatcher) matcher;
+      StringMatcher.Mode mode = getStringMatcherMode(stringMatcher);
+      if (mode == StringMatcher.Mode.EQUALS_FULLY) {
+        return Result.named(getStringMatcherValue(stringMatcher));
+      } else if (mode == StringMatcher.Mode.STARTS_WITH) {
+        return Result.prefixed(getStringMatcherValue(stringMatcher));
+      }
     } else if (matcher instanceof StringSetMatcher) {
       Set<String> value = getStringSetMatcherValue((StringSetMatcher) matcher);
       return Result.named(value);
@@ -199,6 +237,7 @@ public class AgentBuilderUtil {
 
   private static class Result {
     final Set<String> names = new HashSet<>();
+    final Set<String> prefixes = new HashSet<>();
     // true if matcher matches based on type hierarchy
     // false if matcher matches based on type name
     final boolean subtype;
@@ -219,6 +258,7 @@ public class AgentBuilderUtil {
 
       Result result = new Result(true);
       result.names.addAll(value.names);
+      result.prefixes.addAll(value.prefixes);
       return result;
     }
 
@@ -232,6 +272,32 @@ public class AgentBuilderUtil {
       return result;
     }
 
+    static Result prefixed(String value) {
+      Result result = new Result();
+      result.prefixes.add(value);
+      return result;
+    }
+
+    /**
+     * Returns a result that matches everything that either of the given results matches, or null
+     * if that can't be expressed as a single result.
+     */
+    @Nullable
+    static Result union(@Nullable Result first, @Nullable Result second) {
+      if (first == null) {
+        return second;
+      }
+      if (second == null || first.subtype != second.subtype) {
+        return null;
+      }
+      Result result = new Result(first.subtype);
+      result.names.addAll(first.names);
+      result.names.addAll(second.names);
+      result.prefixes.addAll(first.prefixes);
+      result.prefixes.addAll(second.prefixes);
+      return result;
+    }
+
     @Nullable
     static Result named(@Nullable Set<String> value) {
       if (value == null || value.isEmpty()) {
@@ -244,7 +310,7 @@ public class AgentBuilderUtil {
 
     @Override
     public String toString() {
-      return (subtype ? "subtype of " : "named ") + names;
+      return (subtype ? "subtype of " : "named ") + names + " or starting with " + prefixes;
     }
   }
 
@@ -283,15 +349,18 @@ public class AgentBuilderUtil {
     return (List<ElementMatcher<?>>) conjunctionMatchersField.get(matcher);
   }
 
-  /**
-   * @return the value given string matcher matches when matcher mode is
-   *     StringMatcher.Mode.EQUALS_FULLY, null otherwise
-   */
-  @Nullable
+  @SuppressWarnings("unchecked")
+  private static List<ElementMatcher<?>> getDelegateMatchers(
+      ElementMatcher.Junction.Disjunction<?> matcher) throws Exception {
+    return (List<ElementMatcher<?>>) disjunctionMatchersField.get(matcher);
+  }
+
   private static String getStringMatcherValue(StringMatcher matcher) throws Exception {
-    String value = (String) stringMatcherValueField.get(matcher);
-    StringMatcher.Mode mode = (StringMatcher.Mode) stringMatcherModeField.get(matcher);
-    return mode == StringMatcher.Mode.EQUALS_FULLY ? value : null;
+    return (String) stringMatcherValueField.get(matcher);
+  }
+
+  private static StringMatcher.Mode getStringMatcherMode(StringMatcher matcher) throws Exception {
+    return (StringMatcher.Mode) stringMatcherModeField.get(matcher);
   }
 
   @SuppressWarnings("unchecked")
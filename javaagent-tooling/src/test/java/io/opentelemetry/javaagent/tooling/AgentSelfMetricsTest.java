@@ -0,0 +1,65 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import org.junit.jupiter.api.Test;
+
+class AgentSelfMetricsTest {
+
+  @Test
+  void attributesTransformationToInstrumentations() {
+    AgentBuilder.Listener listener = new AgentSelfMetrics.TransformationListener();
+    AgentBuilder.Transformer first = AgentSelfMetrics.transformer("test-first");
+    AgentBuilder.Transformer second = AgentSelfMetrics.transformer("test-second");
+    TypeDescription type = TypeDescription.ForLoadedType.of(String.class);
+    long transformedClasses = AgentSelfMetrics.getTransformedClassCount();
+
+    listener.onDiscovery("test.Transformed", null, null, false);
+    first.transform(null, type, null, null, null);
+    first.transform(null, type, null, null, null);
+    second.transform(null, type, null, null, null);
+    listener.onTransformation(type, null, null, false, null);
+    listener.onComplete("test.Transformed", null, null, false);
+
+    listener.onDiscovery("test.Ignored", null, null, false);
+    listener.onComplete("test.Ignored", null, null, false);
+
+    assertThat(AgentSelfMetrics.getTransformedClassCount()).isEqualTo(transformedClasses + 1);
+    AgentSelfMetrics.InstrumentationStats firstStats =
+        AgentSelfMetrics.getInstrumentationStats("test-first");
+    assertThat(firstStats).isNotNull();
+    assertThat(firstStats.classes.sum()).isEqualTo(1);
+    AgentSelfMetrics.InstrumentationStats secondStats =
+        AgentSelfMetrics.getInstrumentationStats("test-second");
+    assertThat(secondStats).isNotNull();
+    assertThat(secondStats.classes.sum()).isEqualTo(1);
+    assertThat(secondStats.nanos.sum()).isEqualTo(firstStats.nanos.sum());
+  }
+
+  @Test
+  void onlyOutermostTransformationIsMeasured() {
+    AgentBuilder.Listener listener = new AgentSelfMetrics.TransformationListener();
+    AgentBuilder.Transformer transformer = AgentSelfMetrics.transformer("test-nested");
+    TypeDescription type = TypeDescription.ForLoadedType.of(String.class);
+
+    listener.onDiscovery("test.Outer", null, null, false);
+    listener.onDiscovery("test.Inner", null, null, false);
+    transformer.transform(null, type, null, null, null);
+    listener.onComplete("test.Inner", null, null, false);
+
+    AgentSelfMetrics.InstrumentationStats stats =
+        AgentSelfMetrics.getInstrumentationStats("test-nested");
+    assertThat(stats).isNotNull();
+    assertThat(stats.classes.sum()).isEqualTo(0);
+
+    listener.onComplete("test.Outer", null, null, false);
+    assertThat(stats.classes.sum()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.junit.jupiter.api.Test;
+
+class RetransformationSchedulerTest {
+
+  @Test
+  void priorityClassesAreRetransformedFirst() {
+    List<Class<?>> types =
+        Arrays.asList(String.class, ThreadPoolExecutor.class, Integer.class, Thread.class);
+
+    List<List<Class<?>>> batches =
+        batch(new RetransformationScheduler.PrioritizingBatchAllocator(3), types);
+
+    assertThat(batches)
+        .containsExactly(
+            Arrays.asList(ThreadPoolExecutor.class, Thread.class, String.class),
+            Arrays.asList(Integer.class));
+  }
+
+  @Test
+  void nonPositiveBatchSizeUsesSingleBatch() {
+    List<Class<?>> types = Arrays.asList(String.class, Integer.class, Long.class);
+
+    List<List<Class<?>>> batches =
+        batch(new RetransformationScheduler.PrioritizingBatchAllocator(0), types);
+
+    assertThat(batches).containsExactly(types);
+  }
+
+  @Test
+  void onlyThreadAndItsNestedClassesArePrioritized() {
+    assertThat(RetransformationScheduler.priority(Thread.class)).isEqualTo(0);
+    assertThat(RetransformationScheduler.priority(Thread.State.class)).isEqualTo(0);
+    assertThat(RetransformationScheduler.priority(ThreadLocal.class)).isEqualTo(1);
+    assertThat(RetransformationScheduler.priority(ThreadGroup.class)).isEqualTo(1);
+  }
+
+  @Test
+  void pauseBetweenBatchesIsCapped() {
+    RetransformationScheduler.SchedulingListener listener =
+        new RetransformationScheduler.SchedulingListener(10, 25, null);
+    List<Class<?>> batch = Collections.singletonList(String.class);
+
+    // no pause before the first batch
+    listener.onBatch(0, batch, batch);
+    assertThat(listener.getRemainingPauseMillis()).isEqualTo(25);
+    listener.onBatch(1, batch, batch);
+    assertThat(listener.getRemainingPauseMillis()).isEqualTo(15);
+    listener.onBatch(2, batch, batch);
+    assertThat(listener.getRemainingPauseMillis()).isEqualTo(5);
+    listener.onBatch(3, batch, batch);
+    assertThat(listener.getRemainingPauseMillis()).isEqualTo(0);
+    listener.onBatch(4, batch, batch);
+    assertThat(listener.getRemainingPauseMillis()).isEqualTo(0);
+  }
+
+  private static List<List<Class<?>>> batch(
+      RetransformationScheduler.PrioritizingBatchAllocator allocator, List<Class<?>> types) {
+    List<List<Class<?>>> batches = new ArrayList<>();
+    for (List<Class<?>> batch : allocator.batch(types)) {
+      batches.add(batch);
+    }
+    return batches;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.internal.DefaultConfigProperties;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TransformationCacheTest {
+
+  private static final byte[] CLASS_BYTES = "class bytes".getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  void unmatchedClassesArePersisted(@TempDir Path dir) {
+    Path file = dir.resolve("cache.bin");
+    TransformationCache cache = new TransformationCache(file);
+    TransformationCache.Key unmatched = key(cache, null, "test.Unmatched");
+    TransformationCache.Key other = key(cache, null, "test.Other");
+    cache.recordUnmatched(unmatched);
+    cache.persist();
+
+    TransformationCache loaded = new TransformationCache(file);
+    loaded.load();
+    assertThat(loaded.isUnmatched(key(loaded, null, "test.Unmatched"))).isTrue();
+    assertThat(loaded.isUnmatched(other)).isFalse();
+  }
+
+  @Test
+  void unusedEntriesAreDropped(@TempDir Path dir) {
+    Path file = dir.resolve("cache.bin");
+    TransformationCache cache = new TransformationCache(file);
+    cache.recordUnmatched(key(cache, null, "test.First"));
+    cache.recordUnmatched(key(cache, null, "test.Second"));
+    cache.persist();
+
+    TransformationCache secondRun = new TransformationCache(file);
+    secondRun.load();
+    assertThat(secondRun.isUnmatched(key(secondRun, null, "test.First"))).isTrue();
+    secondRun.persist();
+
+    TransformationCache thirdRun = new TransformationCache(file);
+    thirdRun.load();
+    assertThat(thirdRun.isUnmatched(key(thirdRun, null, "test.First"))).isTrue();
+    assertThat(thirdRun.isUnmatched(key(thirdRun, null, "test.Second"))).isFalse();
+  }
+
+  @Test
+  void keyDependsOnClassPath(@TempDir Path dir) throws Exception {
+    TransformationCache cache = new TransformationCache(dir.resolve("cache.bin"));
+    URLClassLoader first =
+        new URLClassLoader(new URL[] {dir.resolve("first.jar").toUri().toURL()}, null);
+    URLClassLoader firstCopy =
+        new URLClassLoader(new URL[] {dir.resolve("first.jar").toUri().toURL()}, null);
+    URLClassLoader second =
+        new URLClassLoader(new URL[] {dir.resolve("second.jar").toUri().toURL()}, null);
+
+    assertThat(key(cache, first, "test.Class")).isEqualTo(key(cache, firstCopy, "test.Class"));
+    assertThat(key(cache, first, "test.Class")).isNotEqualTo(key(cache, second, "test.Class"));
+    assertThat(key(cache, first, "test.Class")).isNotEqualTo(key(cache, null, "test.Class"));
+  }
+
+  @Test
+  void classLoaderWithUnknownClassPathIsNotCached(@TempDir Path dir) {
+    TransformationCache cache = new TransformationCache(dir.resolve("cache.bin"));
+    ClassLoader classLoader = new ClassLoader(null) {};
+
+    assertThat(cache.key(classLoader, "test.Class", CLASS_BYTES, 0, CLASS_BYTES.length)).isNull();
+  }
+
+  @Test
+  void classLoaderWithDirectoryIsNotCached(@TempDir Path dir) throws Exception {
+    TransformationCache cache = new TransformationCache(dir.resolve("cache.bin"));
+    Path classes = Files.createDirectory(dir.resolve("classes"));
+    URLClassLoader parent = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null);
+    URLClassLoader child =
+        new URLClassLoader(new URL[] {dir.resolve("library.jar").toUri().toURL()}, parent);
+
+    assertThat(key(cache, parent, "test.Class")).isNull();
+    assertThat(key(cache, child, "test.Class")).isNull();
+  }
+
+  @Test
+  void fingerprintDependsOnResolvedConfig() {
+    List<String> names = singletonList("otel.instrumentation.test.enabled");
+    ConfigProperties disabled =
+        DefaultConfigProperties.createFromMap(
+            singletonMap("otel.instrumentation.test.enabled", "false"));
+    ConfigProperties enabled =
+        DefaultConfigProperties.createFromMap(
+            singletonMap("otel.instrumentation.test.enabled", "true"));
+
+    assertThat(TransformationCache.fingerprint(disabled, names))
+        .isEqualTo(TransformationCache.fingerprint(disabled, names))
+        .isNotEqualTo(TransformationCache.fingerprint(enabled, names));
+  }
+
+  @Test
+  void fingerprintDependsOnExtensionJars(@TempDir Path dir) throws Exception {
+    Path extension = Files.write(dir.resolve("extension.jar"), new byte[] {1});
+    ConfigProperties config =
+        DefaultConfigProperties.createFromMap(
+            singletonMap("otel.javaagent.extensions", dir.toString()));
+    String fingerprint = TransformationCache.fingerprint(config, emptyList());
+
+    Files.write(extension, new byte[] {1, 2});
+    assertThat(TransformationCache.fingerprint(config, emptyList())).isNotEqualTo(fingerprint);
+  }
+
+  private static TransformationCache.Key key(
+      TransformationCache cache, @Nullable ClassLoader classLoader, String className) {
+    return cache.key(classLoader, className, CLASS_BYTES, 0, CLASS_BYTES.length);
+  }
+}
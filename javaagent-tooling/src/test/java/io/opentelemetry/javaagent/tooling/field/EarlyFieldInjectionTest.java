@@ -0,0 +1,229 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.field;
+
+import static io.opentelemetry.javaagent.extension.matcher.AgentElementMatchers.hasSuperType;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.none;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import io.opentelemetry.javaagent.bootstrap.VirtualFieldInstalledMarker;
+import io.opentelemetry.javaagent.tooling.config.EarlyInitAgentConfig;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.ByteBuddyAgent;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.agent.builder.ResettableClassFileTransformer;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.utility.JavaModule;
+import org.junit.jupiter.api.Test;
+import org.junitpioneer.jupiter.SetSystemProperty;
+
+class EarlyFieldInjectionTest {
+
+  private final ElementMatcher<TypeDescription> typeMatcher = EarlyFieldInjection.typeMatcher();
+
+  @Test
+  void matchesConcreteJdkTasks() throws Exception {
+    assertThat(typeMatcher.matches(TypeDescription.ForLoadedType.of(FutureTask.class))).isTrue();
+    assertThat(
+            typeMatcher.matches(
+                TypeDescription.ForLoadedType.of(
+                    Class.forName(
+                        ScheduledThreadPoolExecutor.class.getName() + "$ScheduledFutureTask"))))
+        .isTrue();
+    assertThat(
+            typeMatcher.matches(
+                TypeDescription.ForLoadedType.of(
+                    Class.forName(ForkJoinTask.class.getName() + "$AdaptedRunnable"))))
+        .isTrue();
+    assertThat(typeMatcher.matches(TypeDescription.ForLoadedType.of(CompletableFuture.class)))
+        .isTrue();
+  }
+
+  @Test
+  void doesNotMatchAbstractOrNonJdkTypes() {
+    assertThat(typeMatcher.matches(TypeDescription.ForLoadedType.of(ForkJoinTask.class)))
+        .isFalse();
+    assertThat(typeMatcher.matches(TypeDescription.ForLoadedType.of(Runnable.class))).isFalse();
+    assertThat(typeMatcher.matches(TypeDescription.ForLoadedType.of(String.class))).isFalse();
+    assertThat(typeMatcher.matches(TypeDescription.ForLoadedType.of(TestTask.class))).isFalse();
+  }
+
+  @Test
+  void mappingsUseTheExecutorsContextType() {
+    assertThat(EarlyFieldInjection.MAPPINGS.size()).isEqualTo(4);
+    assertThat(
+            EarlyFieldInjection.MAPPINGS.hasMapping(
+                Runnable.class.getName(),
+                "io.opentelemetry.javaagent.bootstrap.executors.PropagatedContext"))
+        .isTrue();
+  }
+
+  @Test
+  void disabledByDefault() {
+    assertThat(EarlyFieldInjection.isEnabled(EarlyInitAgentConfig.create())).isFalse();
+  }
+
+  @Test
+  @SetSystemProperty(key = EarlyFieldInjection.ENABLED_CONFIG, value = "true")
+  void enabled() {
+    assertThat(EarlyFieldInjection.isEnabled(EarlyInitAgentConfig.create())).isTrue();
+  }
+
+  @Test
+  @SetSystemProperty(key = EarlyFieldInjection.ENABLED_CONFIG, value = "true")
+  @SetSystemProperty(key = "otel.javaagent.experimental.field-injection.enabled", value = "false")
+  void disabledWithFieldInjection() {
+    assertThat(EarlyFieldInjection.isEnabled(EarlyInitAgentConfig.create())).isFalse();
+  }
+
+  @Test
+  @SetSystemProperty(key = EarlyFieldInjection.ENABLED_CONFIG, value = "true")
+  @SetSystemProperty(key = "otel.instrumentation.executors.enabled", value = "false")
+  void disabledWithExecutorsInstrumentation() {
+    assertThat(EarlyFieldInjection.isEnabled(EarlyInitAgentConfig.create())).isFalse();
+  }
+
+  @Test
+  @SetSystemProperty(key = EarlyFieldInjection.ENABLED_CONFIG, value = "true")
+  @SetSystemProperty(key = "otel.instrumentation.common.default-enabled", value = "false")
+  void disabledWithInstrumentationsDisabledByDefault() {
+    assertThat(EarlyFieldInjection.isEnabled(EarlyInitAgentConfig.create())).isFalse();
+  }
+
+  @Test
+  void injectsFieldsThatSurviveRetransformation() throws Exception {
+    Instrumentation instrumentation = ByteBuddyAgent.install();
+    String className = findUnloadedTaskClass(instrumentation);
+
+    List<Throwable> errors = new CopyOnWriteArrayList<>();
+    ResettableClassFileTransformer earlyTransformer =
+        EarlyFieldInjection.extend(
+                new AgentBuilder.Default()
+                    .with(AgentBuilder.TypeStrategy.Default.DECORATE)
+                    .disableClassFormatChanges()
+                    .with(AgentBuilder.DescriptionStrategy.Default.POOL_ONLY)
+                    .with(new ErrorCollectingListener(errors))
+                    .ignore(none()),
+                instrumentation)
+            .installOn(instrumentation);
+    Class<?> taskClass;
+    try {
+      taskClass = Class.forName(className);
+    } finally {
+      earlyTransformer.reset(instrumentation, AgentBuilder.RedefinitionStrategy.DISABLED);
+    }
+    assertThat(errors).isEmpty();
+    assertThat(VirtualFieldInstalledMarker.class.isAssignableFrom(taskClass)).isTrue();
+    Set<String> fieldNames = virtualFieldNames(taskClass);
+    assertThat(fieldNames).isNotEmpty();
+
+    // the field injection of the instrumentations retransforms the class, it must find the fields
+    // added by the early transformer instead of adding them again
+    FieldAccessorInterfaces fieldAccessorInterfaces =
+        new FieldAccessorInterfacesGenerator(new ByteBuddy())
+            .generateFieldAccessorInterfaces(EarlyFieldInjection.MAPPINGS);
+    TypeDescription taskType = TypeDescription.ForLoadedType.of(taskClass);
+    List<RealFieldInjector> fieldInjectors = new ArrayList<>();
+    for (Map.Entry<String, String> entry : EarlyFieldInjection.MAPPINGS.entrySet()) {
+      if (hasSuperType(named(entry.getKey())).matches(taskType)) {
+        fieldInjectors.add(
+            new RealFieldInjector(fieldAccessorInterfaces, entry.getKey(), entry.getValue()));
+      }
+    }
+    ResettableClassFileTransformer transformer =
+        new AgentBuilder.Default()
+            .disableClassFormatChanges()
+            .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+            .with(new ErrorCollectingListener(errors))
+            .ignore(none())
+            .type(named(className))
+            .transform(
+                (typeBuilder, typeDescription, classLoader, javaModule, protectionDomain) -> {
+                  for (RealFieldInjector fieldInjector : fieldInjectors) {
+                    typeBuilder = typeBuilder.visit(fieldInjector);
+                  }
+                  return typeBuilder;
+                })
+            .installOn(instrumentation);
+    try {
+      instrumentation.retransformClasses(taskClass);
+    } finally {
+      transformer.reset(instrumentation, AgentBuilder.RedefinitionStrategy.DISABLED);
+    }
+    assertThat(errors).isEmpty();
+    assertThat(virtualFieldNames(taskClass)).isEqualTo(fieldNames);
+  }
+
+  // JDK task classes that are not used by the test framework, the first one that isn't loaded yet
+  // is loaded under the early transformer
+  private static String findUnloadedTaskClass(Instrumentation instrumentation) {
+    Set<String> loadedClassNames = new HashSet<>();
+    for (Class<?> clazz : instrumentation.getAllLoadedClasses()) {
+      loadedClassNames.add(clazz.getName());
+    }
+    for (String className :
+        Arrays.asList(
+            "java.util.concurrent.CompletableFuture$AsyncRun",
+            "java.util.concurrent.CompletableFuture$AsyncSupply",
+            "java.util.concurrent.ForkJoinTask$AdaptedRunnableAction",
+            "java.util.concurrent.ForkJoinTask$AdaptedCallable")) {
+      if (!loadedClassNames.contains(className)) {
+        return className;
+      }
+    }
+    assumeTrue(false, "all candidate task classes are already loaded");
+    return null;
+  }
+
+  private static Set<String> virtualFieldNames(Class<?> clazz) {
+    Set<String> names = new HashSet<>();
+    for (Field field : clazz.getDeclaredFields()) {
+      if (field.getName().startsWith("__opentelemetry")) {
+        names.add(field.getName());
+      }
+    }
+    return names;
+  }
+
+  private static class ErrorCollectingListener extends AgentBuilder.Listener.Adapter {
+    private final List<Throwable> errors;
+
+    ErrorCollectingListener(List<Throwable> errors) {
+      this.errors = errors;
+    }
+
+    @Override
+    public void onError(
+        String typeName,
+        ClassLoader classLoader,
+        JavaModule module,
+        boolean loaded,
+        Throwable throwable) {
+      errors.add(throwable);
+    }
+  }
+
+  static class TestTask implements Runnable {
+    @Override
+    public void run() {}
+  }
+}
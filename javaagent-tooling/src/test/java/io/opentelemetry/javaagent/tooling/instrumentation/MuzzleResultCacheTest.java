@@ -0,0 +1,85 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.instrumentation;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.internal.DefaultConfigProperties;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MuzzleResultCacheTest {
+
+  @Test
+  void resultsArePersisted(@TempDir Path dir) {
+    Path file = dir.resolve("cache.bin");
+    MuzzleResultCache cache = new MuzzleResultCache(file);
+    cache.recordResult(cache.key("test.Matching", null), true);
+    cache.recordResult(cache.key("test.Mismatching", null), false);
+    cache.persist();
+
+    MuzzleResultCache loaded = new MuzzleResultCache(file);
+    loaded.load();
+    assertThat(loaded.getResult(loaded.key("test.Matching", null))).isTrue();
+    assertThat(loaded.getResult(loaded.key("test.Mismatching", null))).isFalse();
+    assertThat(loaded.getResult(loaded.key("test.Unknown", null))).isNull();
+  }
+
+  @Test
+  void keyDependsOnJarContent(@TempDir Path dir) throws Exception {
+    MuzzleResultCache cache = new MuzzleResultCache(dir.resolve("cache.bin"));
+    Path jar = Files.write(dir.resolve("library.jar"), new byte[] {1});
+    URL[] urls = new URL[] {jar.toUri().toURL()};
+    URLClassLoader before = new URLClassLoader(urls, null);
+    URLClassLoader sameJar = new URLClassLoader(urls, null);
+    MuzzleResultCache.Key key = cache.key("test.Module", before);
+
+    assertThat(cache.key("test.Module", sameJar)).isEqualTo(key);
+    assertThat(cache.key("test.Other", sameJar)).isNotEqualTo(key);
+
+    Files.write(jar, new byte[] {1, 2});
+    URLClassLoader after = new URLClassLoader(urls, null);
+    assertThat(cache.key("test.Module", after)).isNotEqualTo(key);
+  }
+
+  @Test
+  void fingerprintDependsOnExtensionJars(@TempDir Path dir) throws Exception {
+    Path extension = Files.write(dir.resolve("extension.jar"), new byte[] {1});
+    ConfigProperties config =
+        DefaultConfigProperties.createFromMap(
+            singletonMap("otel.javaagent.extensions", extension.toString()));
+    String fingerprint = MuzzleResultCache.fingerprint(config);
+
+    assertThat(MuzzleResultCache.fingerprint(config)).isEqualTo(fingerprint);
+    Files.write(extension, new byte[] {1, 2});
+    assertThat(MuzzleResultCache.fingerprint(config)).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  void classLoaderWithUnknownClassPathIsNotCached(@TempDir Path dir) {
+    MuzzleResultCache cache = new MuzzleResultCache(dir.resolve("cache.bin"));
+
+    assertThat(cache.key("test.Module", new ClassLoader(null) {})).isNull();
+  }
+
+  @Test
+  void classLoaderWithDirectoryIsNotCached(@TempDir Path dir) throws Exception {
+    MuzzleResultCache cache = new MuzzleResultCache(dir.resolve("cache.bin"));
+    Path jar = Files.write(dir.resolve("library.jar"), new byte[] {1});
+    Path classes = Files.createDirectory(dir.resolve("classes"));
+    URLClassLoader parent = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null);
+    URLClassLoader child = new URLClassLoader(new URL[] {jar.toUri().toURL()}, parent);
+
+    assertThat(cache.key("test.Module", parent)).isNull();
+    assertThat(cache.key("test.Module", child)).isNull();
+  }
+}
@@ -5,9 +5,13 @@
 
 package io.opentelemetry.javaagent.tooling;
 
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import io.opentelemetry.instrumentation.api.internal.cache.CacheStats;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Objects;
+import javax.annotation.Nullable;
 import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.utility.StreamDrainer;
 
@@ -99,6 +103,18 @@ public abstract class BytecodeWithUrl {
 
   private static class Lazy extends BytecodeWithUrl {
 
+    // the same helper classes are copied into many class loaders (e.g. every web application of an
+    // application server), share their bytecode instead of reading it from the agent jar every
+    // time; the cache is bounded by the size of the bytecode, which is enough for the helper
+    // classes of several hundred instrumentations, its frequency sketch grows with the number of
+    // entries
+    private static final long BYTECODE_CACHE_MAX_WEIGHT = 1024 * 1024;
+    private static final Cache<Lazy, byte[]> bytecodeCache =
+        Cache.boundedTinyLfu(
+            BYTECODE_CACHE_MAX_WEIGHT,
+            (key, bytecode) -> Math.max(1, bytecode.length),
+            CacheStats.create("helper-bytecode"));
+
     private final ClassLoader classLoader;
     private final String resourceName;
 
@@ -119,6 +135,10 @@ public abstract class BytecodeWithUrl {
 
     @Override
     public byte[] getBytecode() {
+      return bytecodeCache.computeIfAbsent(this, Lazy::readBytecode);
+    }
+
+    private byte[] readBytecode() {
       try (InputStream bytecodeStream = getUrl().openStream()) {
         return StreamDrainer.DEFAULT.drain(bytecodeStream);
       } catch (IOException e) {
@@ -130,6 +150,23 @@ public abstract class BytecodeWithUrl {
     public BytecodeWithUrl cached() {
       return new Cached(this);
     }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Lazy)) {
+        return false;
+      }
+      Lazy other = (Lazy) obj;
+      return classLoader == other.classLoader && resourceName.equals(other.resourceName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(classLoader), resourceName);
+    }
   }
 
   private static class Cached extends BytecodeWithUrl {
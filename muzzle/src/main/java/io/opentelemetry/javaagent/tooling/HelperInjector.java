@@ -94,7 +94,7 @@ public class HelperInjector implements Transformer {
   @Nullable private final ClassLoader helpersSource;
   @Nullable private final Instrumentation instrumentation;
 
-  private final Cache<ClassLoader, Boolean> injectedClassLoaders = Cache.weak();
+  private final Cache<ClassLoader, InjectionState> injectionStates = Cache.weak();
 
   /**
    * Construct HelperInjector.
@@ -169,41 +169,53 @@ public class HelperInjector implements Transformer {
       ClassLoader classLoader,
       JavaModule javaModule,
       ProtectionDomain protectionDomain) {
-    injectedClassLoaders.computeIfAbsent(
-        maskNullClassLoader(classLoader),
-        cl -> {
-          List<HelperClassDefinition> helpers = helperClassesGenerator.apply(cl);
-
-          LinkedHashMap<String, Supplier<byte[]>> classesToInject =
-              helpers.stream()
-                  .filter(helper -> helper.getInjectionMode().shouldInjectClass())
-                  .collect(
-                      Collectors.toMap(
-                          HelperClassDefinition::getClassName,
-                          helper -> () -> helper.getBytecode().getBytecode(),
-                          (a, b) -> {
-                            throw new IllegalStateException(
-                                "Duplicate classnames for helper class detected!");
-                          },
-                          LinkedHashMap::new));
-
-          Map<String, URL> classResourcesToInject =
-              helpers.stream()
-                  .filter(helper -> helper.getInjectionMode().shouldInjectResource())
-                  .collect(
-                      Collectors.toMap(
-                          helper -> helper.getClassName().replace('.', '/') + ".class",
-                          helper -> helper.getBytecode().getUrl()));
-
-          injectHelperClasses(typeDescription, cl, classesToInject);
-          if (!isBootClassLoader(cl)) {
-            injectHelperResources(cl, classResourcesToInject);
-          }
-          return true;
-        });
+    ClassLoader cl = maskNullClassLoader(classLoader);
+    // the injection must not run inside computeIfAbsent, that would hold a lock of the underlying
+    // map and block the injection into other class loaders that map to the same bin; instead only
+    // concurrent injections into the same class loader wait for each other
+    InjectionState state = injectionStates.computeIfAbsent(cl, unused -> new InjectionState());
+    if (state.injected) {
+      return builder;
+    }
+    synchronized (state) {
+      if (!state.injected) {
+        injectHelpers(typeDescription, cl);
+        state.injected = true;
+      }
+    }
     return builder;
   }
 
+  private void injectHelpers(TypeDescription typeDescription, ClassLoader cl) {
+    List<HelperClassDefinition> helpers = helperClassesGenerator.apply(cl);
+
+    LinkedHashMap<String, Supplier<byte[]>> classesToInject =
+        helpers.stream()
+            .filter(helper -> helper.getInjectionMode().shouldInjectClass())
+            .collect(
+                Collectors.toMap(
+                    HelperClassDefinition::getClassName,
+                    helper -> () -> helper.getBytecode().getBytecode(),
+                    (a, b) -> {
+                      throw new IllegalStateException(
+                          "Duplicate classnames for helper class detected!");
+                    },
+                    LinkedHashMap::new));
+
+    Map<String, URL> classResourcesToInject =
+        helpers.stream()
+            .filter(helper -> helper.getInjectionMode().shouldInjectResource())
+            .collect(
+                Collectors.toMap(
+                    helper -> helper.getClassName().replace('.', '/') + ".class",
+                    helper -> helper.getBytecode().getUrl()));
+
+    injectHelperClasses(typeDescription, cl, classesToInject);
+    if (!isBootClassLoader(cl)) {
+      injectHelperResources(cl, classResourcesToInject);
+    }
+  }
+
   private void injectHelperResources(
       ClassLoader classLoader, Map<String, URL> additionalResources) {
     for (HelperResource helperResource : helperResources) {
@@ -387,6 +399,11 @@ public class HelperInjector implements Transformer {
     return helperClassInjector.inject(classLoader, className);
   }
 
+  private static class InjectionState {
+    // guarded by the InjectionState monitor for writes, volatile for the unsynchronized fast path
+    volatile boolean injected;
+  }
+
   private static class HelperClassInjector {
     private final Supplier<byte[]> bytes;
 
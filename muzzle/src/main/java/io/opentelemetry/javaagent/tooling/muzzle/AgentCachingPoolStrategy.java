@@ -7,6 +7,7 @@ package io.opentelemetry.javaagent.tooling.muzzle;
 
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import io.opentelemetry.instrumentation.api.internal.cache.CacheStats;
 import io.opentelemetry.javaagent.bootstrap.InstrumentationHolder;
 import io.opentelemetry.javaagent.bootstrap.VirtualFieldAccessorMarker;
 import io.opentelemetry.javaagent.bootstrap.internal.AgentInstrumentationConfig;
@@ -33,7 +34,11 @@ import net.bytebuddy.pool.TypePool;
 import net.bytebuddy.utility.JavaModule;
 
 /**
- *
+ * A pool strategy that caches the type resolutions of all class loaders in a single cache that is
+ * bounded by a maximum weight, so that the memory used by the cache doesn't grow with the number of
+ * class loaders. In application servers with many web application class loaders the hierarchy
+ * lookups done by matchers like {@code extendsClass} and {@code implementsInterface} would
+ * otherwise need to repeatedly locate and parse the same class files.
  *
  * <ul>
  *   There two core parts to the cache...
@@ -42,10 +47,9 @@ import net.bytebuddy.utility.JavaModule;
  *       ClassLoader and class name
  * </ul>
  *
- * <p>This design was chosen to create a single limited size cache that can be adjusted for the
- * entire application -- without having to create a large number of WeakReference objects.
- *
- * <p>Eviction is handled through a size restriction
+ * <p>The weight of an entry is roughly proportional to the memory used by the parsed type
+ * description. The cache uses the W-TinyLFU policy, types that are looked up repeatedly are kept
+ * while the types that are resolved by a single class loader only once are evicted first.
  */
 public class AgentCachingPoolStrategy implements AgentBuilder.PoolStrategy {
 
@@ -57,7 +61,10 @@ public class AgentCachingPoolStrategy implements AgentBuilder.PoolStrategy {
           .getBoolean("otel.instrumentation.internal-reflection.enabled", true);
   private static final Method findLoadedClassMethod = getFindLoadedClassMethod();
 
-  static final int TYPE_CAPACITY = 64;
+  // maximum weight of the cache, a type weighs 1 plus the number of its declared members
+  static final long TYPE_CACHE_MAX_WEIGHT =
+      AgentInstrumentationConfig.get()
+          .getLong("otel.javaagent.experimental.type-pool-cache.max-weight", 16 * 1024);
 
   static final int BOOTSTRAP_HASH = 7236344; // Just a random number
 
@@ -74,17 +81,39 @@ public class AgentCachingPoolStrategy implements AgentBuilder.PoolStrategy {
   /**
    * Single shared Type.Resolution cache -- uses a composite key -- conceptually of loader & name
    */
-  final Cache<TypeCacheKey, TypePool.Resolution> sharedResolutionCache =
-      Cache.bounded(TYPE_CAPACITY);
+  final Cache<TypeCacheKey, TypePool.Resolution> sharedResolutionCache;
 
   // fast path for bootstrap
-  final SharedResolutionCacheAdapter bootstrapCacheProvider =
-      new SharedResolutionCacheAdapter(BOOTSTRAP_HASH, null, sharedResolutionCache);
+  final SharedResolutionCacheAdapter bootstrapCacheProvider;
 
   private final AgentLocationStrategy locationStrategy;
 
   public AgentCachingPoolStrategy(AgentLocationStrategy locationStrategy) {
+    this(locationStrategy, TYPE_CACHE_MAX_WEIGHT);
+  }
+
+  // Visible for testing
+  AgentCachingPoolStrategy(AgentLocationStrategy locationStrategy, long maxWeight) {
     this.locationStrategy = locationStrategy;
+    this.sharedResolutionCache =
+        Cache.boundedTinyLfu(
+            maxWeight,
+            (key, resolution) -> weigh(resolution),
+            CacheStats.create("type-pool"));
+    this.bootstrapCacheProvider =
+        new SharedResolutionCacheAdapter(BOOTSTRAP_HASH, null, sharedResolutionCache);
+  }
+
+  /**
+   * Estimates the memory used by a type resolution. A parsed type description mostly consists of
+   * the descriptions of its members.
+   */
+  static int weigh(TypePool.Resolution resolution) {
+    if (!resolution.isResolved()) {
+      return 1;
+    }
+    TypeDescription type = resolution.resolve();
+    return 1 + type.getDeclaredMethods().size() + type.getDeclaredFields().size();
   }
 
   private static Method getFindLoadedClassMethod() {
@@ -146,7 +175,8 @@ public class AgentCachingPoolStrategy implements AgentBuilder.PoolStrategy {
     return typePool(classFileLocator, classLoader);
   }
 
-  private TypePool.CacheProvider getCacheProvider(ClassLoader classLoader) {
+  // Visible for testing
+  TypePool.CacheProvider getCacheProvider(ClassLoader classLoader) {
     if (classLoader == null) {
       return bootstrapCacheProvider;
     }
@@ -5,15 +5,23 @@
 
 package io.opentelemetry.javaagent.tooling.muzzle;
 
+import static java.util.Arrays.asList;
 import static net.bytebuddy.matcher.ElementMatchers.declaresMethod;
 import static net.bytebuddy.matcher.ElementMatchers.isAnnotatedWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.opentelemetry.test.AnnotatedTestClass;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.dynamic.ClassFileLocator;
 import net.bytebuddy.pool.TypePool;
@@ -61,4 +69,69 @@ class AgentCachingPoolStrategyTest {
         declaresMethod(isAnnotatedWith(AnnotatedTestClass.TestAnnotation.class))
             .matches(typeDescription));
   }
+
+  @Test
+  void testResolutionsAreKeyedByClassLoader() {
+    AgentCachingPoolStrategy poolStrategy =
+        new AgentCachingPoolStrategy(AgentTooling.locationStrategy());
+    ClassLoader first = new ClassLoader(AgentCachingPoolStrategyTest.class.getClassLoader()) {};
+    ClassLoader second = new ClassLoader(AgentCachingPoolStrategyTest.class.getClassLoader()) {};
+    String className = AnnotatedTestClass.class.getName();
+
+    TypePool pool = poolStrategy.typePool(ClassFileLocator.ForClassLoader.of(first), first);
+    assertNotNull(pool.describe(className).resolve().getDeclaredMethods());
+    assertNotNull(pool.describe("java.util.ArrayList").resolve().getDeclaredMethods());
+
+    assertNotNull(poolStrategy.getCacheProvider(first).find(className));
+    assertNull(poolStrategy.getCacheProvider(second).find(className));
+    // classes from the java package are shared through the boot loader entries
+    assertNotNull(poolStrategy.getCacheProvider(second).find("java.util.ArrayList"));
+  }
+
+  @Test
+  void testWeigh() {
+    TypePool.Resolution resolution =
+        new TypePool.Resolution.Simple(TypeDescription.ForLoadedType.of(AnnotatedTestClass.class));
+    TypeDescription type = resolution.resolve();
+
+    assertEquals(
+        1 + type.getDeclaredMethods().size() + type.getDeclaredFields().size(),
+        AgentCachingPoolStrategy.weigh(resolution));
+    assertEquals(1, AgentCachingPoolStrategy.weigh(new TypePool.Resolution.Illegal("missing")));
+  }
+
+  @Test
+  void testCacheIsBoundedByWeight() {
+    long maxWeight = 200;
+    AgentCachingPoolStrategy poolStrategy =
+        new AgentCachingPoolStrategy(AgentTooling.locationStrategy(), maxWeight);
+    TypePool.CacheProvider cacheProvider = poolStrategy.getCacheProvider(null);
+
+    Map<String, TypePool.Resolution> resolutions = new LinkedHashMap<>();
+    for (int i = 0; i < 50; i++) {
+      resolutions.put("missing" + i, new TypePool.Resolution.Illegal("missing" + i));
+    }
+    for (Class<?> heavyType : asList(String.class, ArrayList.class, HashMap.class)) {
+      resolutions.put(
+          heavyType.getName(),
+          new TypePool.Resolution.Simple(TypeDescription.ForLoadedType.of(heavyType)));
+    }
+    long totalWeight = 0;
+    for (Map.Entry<String, TypePool.Resolution> entry : resolutions.entrySet()) {
+      cacheProvider.register(entry.getKey(), entry.getValue());
+      totalWeight += AgentCachingPoolStrategy.weigh(entry.getValue());
+    }
+    assertTrue(totalWeight > maxWeight);
+
+    int cachedEntries = 0;
+    long cachedWeight = 0;
+    for (Map.Entry<String, TypePool.Resolution> entry : resolutions.entrySet()) {
+      if (cacheProvider.find(entry.getKey()) != null) {
+        cachedEntries++;
+        cachedWeight += AgentCachingPoolStrategy.weigh(entry.getValue());
+      }
+    }
+    assertTrue(cachedEntries < resolutions.size());
+    assertTrue(cachedWeight <= maxWeight);
+  }
 }